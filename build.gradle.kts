@@ -1,6 +1,7 @@
 plugins {
 	id("fabric-loom") version "1.7-SNAPSHOT"
 	id("maven-publish")
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 version = (project.property("mod_version") as String) + "+${stonecutter.current.project}"
@@ -34,6 +35,41 @@ dependencies {
 	modImplementation("net.fabricmc:fabric-loader:${loader}")
 }
 
+// Benchmarks live in src/jmh and run against the Minecraft version of the current project.
+// Run them per version with ./gradlew :1.20.4:jmh, results are written as JSON so they can be diffed.
+sourceSets {
+	named("jmh") {
+		compileClasspath += sourceSets.main.get().compileClasspath
+		runtimeClasspath += sourceSets.main.get().runtimeClasspath
+	}
+}
+
+jmh {
+	jmhVersion.set("1.37")
+	fork.set(1)
+	warmupIterations.set(3)
+	iterations.set(5)
+	resultFormat.set("JSON")
+	resultsFile.set(layout.buildDirectory.file("reports/jmh/results-${stonecutter.current.project}.json"))
+
+	// Allows running a subset, for example -Pjmh.includes=SearchBenchmark
+	if (project.hasProperty("jmh.includes")) {
+		includes.set(listOf(project.property("jmh.includes") as String))
+	}
+}
+
+// Replays typing, scrolling and clicking in the recipe panel with 10k and 100k synthetic recipes and fails
+// when the 99th percentile frame takes longer than the budget. Timings depend on the machine, so this is
+// not part of build. Run it with ./gradlew :1.20.4:frameBudgetCheck -PframeBudgetMillis=2
+tasks.register<JavaExec>("frameBudgetCheck") {
+	group = "verification"
+	description = "Checks the p99 frame time of the recipe panel against large synthetic registries"
+	classpath = sourceSets["jmh"].runtimeClasspath
+	mainClass.set("dev.ceymikey.benchmark.FrameBudgetHarness")
+	systemProperty("brewingguide.frameBudget.millis", project.findProperty("frameBudgetMillis") ?: "2")
+	systemProperty("brewingguide.frameBudget.counts", project.findProperty("frameBudgetCounts") ?: "10000,100000")
+}
+
 tasks.processResources {
 	inputs.property("version", project.version)
 	inputs.property("minecraft", stonecutter.current.version)
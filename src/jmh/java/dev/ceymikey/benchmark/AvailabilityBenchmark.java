@@ -0,0 +1,154 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.benchmark;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.inventory.InventoryAvailabilityIndex;
+import dev.ceymikey.potion.PotionRecipe;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.potion.PotionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the availability index against scanning the inventory slots,
+ * for the recipes visible in one frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AvailabilityBenchmark {
+    // Brewing stand slots plus the player inventory
+    private static final int SLOT_COUNT = 41;
+    private static final int VISIBLE_RECIPES = 7;
+
+    @Param({"60", "1000", "10000", "100000"})
+    private int recipeCount;
+
+    private final InventoryAvailabilityIndex index = new InventoryAvailabilityIndex();
+    private final List<ItemStack> slots = new ArrayList<>();
+    // A different stack for every slot, so slotUpdate really changes what the index tracks
+    private final List<ItemStack> replacements = new ArrayList<>();
+    private List<PotionRecipe> recipes;
+    private int offset;
+    private int updates;
+
+    @Setup
+    public void setup() {
+        SyntheticRecipes.fill(this.recipeCount);
+        this.recipes = PotionRecipeRegistry.getAllRecipes();
+
+        // Fills the player inventory with things some recipes need
+        Random random = new Random(this.recipeCount);
+        this.index.reset(SLOT_COUNT);
+        this.slots.clear();
+        this.replacements.clear();
+        this.updates = 0;
+
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            ItemStack stack = ItemStack.EMPTY;
+            ItemStack replacement = ItemStack.EMPTY;
+            if (i >= InventoryAvailabilityIndex.FIRST_INVENTORY_SLOT) {
+                PotionRecipe recipe = this.recipes.get(random.nextInt(this.recipes.size()));
+                boolean base = random.nextBoolean();
+                stack = (base ? recipe.getBasePotion() : recipe.getIngredient()).copy();
+                replacement = (base ? recipe.getIngredient() : recipe.getBasePotion()).copy();
+                if (ItemStack.canCombine(stack, replacement)) {
+                    replacement = new ItemStack(Items.GLASS_BOTTLE);
+                }
+            }
+
+            this.slots.add(stack);
+            this.replacements.add(replacement);
+            this.index.updateSlot(i, stack);
+        }
+    }
+
+    @Benchmark
+    public int indexLookup() {
+        int available = 0;
+        for (PotionRecipe recipe : nextVisibleRecipes()) {
+            if (this.index.canBrew(recipe)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    // How the panel used to check availability before the index existed
+    @Benchmark
+    public int slotScan() {
+        int available = 0;
+        for (PotionRecipe recipe : nextVisibleRecipes()) {
+            if (scan(recipe.getBasePotion()) && scan(recipe.getIngredient()) && scan(new ItemStack(Items.BLAZE_POWDER))) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    // Every pass over the inventory swaps each slot to the other of its two stacks
+    @Benchmark
+    public void slotUpdate() {
+        int inventorySize = SLOT_COUNT - InventoryAvailabilityIndex.FIRST_INVENTORY_SLOT;
+        int update = this.updates;
+        this.updates = (update + 1) % (2 * inventorySize);
+        int slot = InventoryAvailabilityIndex.FIRST_INVENTORY_SLOT + update % inventorySize;
+        List<ItemStack> stacks = (update / inventorySize) % 2 == 0 ? this.replacements : this.slots;
+        this.index.updateSlot(slot, stacks.get(slot));
+    }
+
+    private List<PotionRecipe> nextVisibleRecipes() {
+        int from = this.offset++ % Math.max(1, this.recipes.size() - VISIBLE_RECIPES);
+        return this.recipes.subList(from, Math.min(this.recipes.size(), from + VISIBLE_RECIPES));
+    }
+
+    private boolean scan(ItemStack target) {
+        for (int i = InventoryAvailabilityIndex.FIRST_INVENTORY_SLOT; i < this.slots.size(); i++) {
+            ItemStack stack = this.slots.get(i);
+            if (stack.isEmpty()) {
+                continue;
+            }
+
+            if (target.isOf(Items.POTION) || target.isOf(Items.SPLASH_POTION) || target.isOf(Items.LINGERING_POTION)) {
+                if (stack.getItem() == target.getItem() && PotionUtil.getPotion(stack) == PotionUtil.getPotion(target)) {
+                    return true;
+                }
+            } else if (ItemStack.areItemsEqual(stack, target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
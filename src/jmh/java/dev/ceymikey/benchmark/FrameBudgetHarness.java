@@ -0,0 +1,263 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.benchmark;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.inventory.InventoryAvailabilityIndex;
+import dev.ceymikey.panel.RecipeLayout;
+import dev.ceymikey.panel.RecipePanel;
+import dev.ceymikey.panel.RecipeView;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.PotionVariant;
+import dev.ceymikey.registry.RegistrySnapshot;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays scripted sessions against the recipe panel logic without a screen and checks the frame times.
+ * <p>
+ * Every frame does what the brewing stand screen does on the render thread, except for the drawing itself:
+ * submitting and picking up searches, looking up the visible rows, hit testing the mouse and checking
+ * clicked recipes, all through the same {@link RecipePanel} the screen uses. Frames are paced at 60 per second,
+ * so the debounced searches behave like in game.
+ * <p>
+ * The harness exits with status 1 when the 99th percentile frame of any session takes longer than
+ * {@code brewingguide.frameBudget.millis} (default 2) for any of the recipe counts in
+ * {@code brewingguide.frameBudget.counts} (default 10000 and 100000). Run it with
+ * {@code ./gradlew :1.20.4:frameBudgetCheck}.
+ */
+public final class FrameBudgetHarness {
+    // Same sizes as the panel in BrewingStandScreenMixin
+    private static final int VISIBLE_HEIGHT = 140;
+    private static final int PANEL_WIDTH = 120;
+    private static final int SLOT_COUNT = 41;
+
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+    // How long to keep rendering while waiting for a search, 5 seconds
+    private static final int MAX_SETTLE_FRAMES = 300;
+    private static final int SCROLL_STEP = 20;
+
+    private static final String[] TYPED_QUERIES = {"fire resistance", "magma crem", "effect:speed level:2", "dur>3:00 !awkward"};
+
+    private final RegistrySnapshot snapshot;
+    private final RecipePanel panel = new RecipePanel();
+    private final InventoryAvailabilityIndex index = new InventoryAvailabilityIndex();
+    private final LongArrayList frameTimes = new LongArrayList();
+    private final Random random;
+
+    private String text = "";
+    private PotionVariant variant = PotionVariant.NORMAL;
+    private int scrollY;
+    private int mouseX;
+    private int mouseY;
+    private boolean clicked;
+    private long nextFrame;
+
+    // Keeps the work from being optimized away
+    private long sink;
+
+    private FrameBudgetHarness(RegistrySnapshot snapshot, long seed) {
+        this.snapshot = snapshot;
+        this.random = new Random(seed);
+        this.index.reset(SLOT_COUNT);
+    }
+
+    public static void main(String[] args) {
+        double budgetMillis = Double.parseDouble(System.getProperty("brewingguide.frameBudget.millis", "2"));
+        int[] counts = Arrays.stream(System.getProperty("brewingguide.frameBudget.counts", "10000,100000").split(","))
+                .mapToInt(count -> Integer.parseInt(count.trim()))
+                .toArray();
+
+        BenchmarkBootstrap.init();
+        boolean failed = false;
+
+        for (int count : counts) {
+            SyntheticRecipes.fill(count);
+            RegistrySnapshot snapshot = PotionRecipeRegistry.getSnapshot();
+            // The game builds the index while loading, so it is no part of any frame
+            snapshot.getSearchIndex();
+
+            for (Session session : Session.values()) {
+                // The first run only warms up the JIT
+                new FrameBudgetHarness(snapshot, count).play(session);
+                FrameBudgetHarness harness = new FrameBudgetHarness(snapshot, count);
+                harness.play(session);
+
+                long[] times = harness.frameTimes.toLongArray();
+                Arrays.sort(times);
+                double p99 = millis(percentile(times, 0.99));
+                boolean overBudget = p99 > budgetMillis;
+                failed |= overBudget;
+
+                System.out.printf(Locale.ROOT, "%,8d recipes  %-9s %5d frames  p50 %7.3f ms  p99 %7.3f ms  max %7.3f ms  %s%n",
+                        snapshot.size(), session.name().toLowerCase(Locale.ROOT), times.length,
+                        millis(percentile(times, 0.5)), p99, millis(times[times.length - 1]),
+                        overBudget ? "OVER BUDGET" : "ok");
+            }
+        }
+
+        if (failed) {
+            System.out.printf(Locale.ROOT, "p99 frame time exceeded the budget of %.3f ms%n", budgetMillis);
+            System.exit(1);
+        }
+    }
+
+    private void play(Session session) {
+        this.nextFrame = System.nanoTime();
+        try {
+            switch (session) {
+                case TYPING -> playTyping();
+                case SCROLLING -> playScrolling();
+                case CLICKING -> playClicking();
+            }
+        } finally {
+            this.panel.close();
+        }
+    }
+
+    // Types every query one character at a time and erases it again
+    private void playTyping() {
+        for (String query : TYPED_QUERIES) {
+            for (int i = 1; i <= query.length(); i++) {
+                this.text = query.substring(0, i);
+                frames(3);
+            }
+            settle();
+
+            for (int i = query.length() - 1; i >= 0; i--) {
+                this.text = query.substring(0, i);
+                frames(2);
+            }
+            settle();
+        }
+    }
+
+    // Scrolls through everything and through a search, switching variants halfway
+    private void playScrolling() {
+        for (String query : new String[] {"", "potion"}) {
+            this.text = query;
+            this.scrollY = 0;
+            settle();
+
+            for (int i = 0; i < 300; i++) {
+                this.scrollY += SCROLL_STEP;
+                if (i == 150) {
+                    this.variant = this.variant.next();
+                }
+                frame();
+            }
+        }
+    }
+
+    // Moves the mouse over random rows and clicks every few frames, jumping to random scroll positions
+    private void playClicking() {
+        this.text = "potion";
+        settle();
+
+        for (int i = 0; i < 600; i++) {
+            this.mouseX = this.random.nextInt(PANEL_WIDTH);
+            this.mouseY = this.random.nextInt(VISIBLE_HEIGHT);
+            this.clicked = i % 5 == 0;
+            if (i % 60 == 0) {
+                this.scrollY = this.random.nextInt(Math.max(1, this.panel.getView().getContentHeight()));
+            }
+            frame();
+        }
+    }
+
+    private void frames(int count) {
+        for (int i = 0; i < count; i++) {
+            frame();
+        }
+    }
+
+    // Keeps rendering until the submitted search finished
+    private void settle() {
+        for (int i = 0; i < MAX_SETTLE_FRAMES; i++) {
+            frame();
+            if (!this.panel.isSearching()) {
+                return;
+            }
+        }
+    }
+
+    // One frame of the screen, see BrewingStandScreenMixin#onRender and #mouseClicked
+    private void frame() {
+        long start = System.nanoTime();
+
+        RecipeView view = this.panel.update(this.snapshot, this.text, this.variant);
+        RecipeLayout layout = view.getLayout();
+        int scroll = Math.min(this.scrollY, layout.getMaxScroll(VISIBLE_HEIGHT));
+
+        int endRow = this.panel.endVisibleRow(scroll, VISIBLE_HEIGHT);
+        for (int row = this.panel.firstVisibleRow(scroll); row < endRow; row++) {
+            if (!layout.isHeader(row)) {
+                PotionRecipe recipe = layout.getRecipe(row);
+                this.sink += this.index.has(recipe.getPackedBaseKey(this.variant)) ? 1 : 0;
+                this.sink += this.index.has(recipe.getPackedIngredientKey()) ? 1 : 0;
+                this.sink += recipe.getPackedResultKey(this.variant);
+            }
+        }
+
+        int row = this.panel.recipeRowAt(scroll, this.mouseY);
+        if (row != -1) {
+            PotionRecipe recipe = layout.getRecipe(row);
+            int item = RecipeLayout.itemAt(this.mouseX, scroll + this.mouseY - layout.getRowTop(row));
+            if (item != RecipeLayout.NO_ITEM) {
+                this.sink += RecipeLayout.getItem(recipe, this.variant, item).getCount();
+            }
+            if (this.clicked) {
+                this.sink += this.index.canBrew(recipe, this.variant) ? 1 : 0;
+            }
+        }
+        this.clicked = false;
+
+        this.frameTimes.add(System.nanoTime() - start);
+
+        // Waits for the next frame, giving the search thread time like the game would
+        this.nextFrame += FRAME_NANOS;
+        long wait = this.nextFrame - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        } else {
+            this.nextFrame = System.nanoTime();
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private enum Session {
+        TYPING, SCROLLING, CLICKING
+    }
+}
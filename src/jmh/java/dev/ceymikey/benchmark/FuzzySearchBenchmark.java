@@ -0,0 +1,74 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.benchmark;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.registry.RegistrySnapshot;
+import dev.ceymikey.search.FuzzyMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the fuzzy fallback search with typos, abbreviations and words that match nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FuzzySearchBenchmark {
+    @Param({"60", "1000", "10000", "100000"})
+    private int recipeCount;
+
+    @Param({"fier res", "spd", "magma crem", "zzz"})
+    private String query;
+
+    @Param({"50"})
+    private int limit;
+
+    private RegistrySnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        SyntheticRecipes.fill(this.recipeCount);
+        this.snapshot = PotionRecipeRegistry.getSnapshot();
+
+        // Builds the masks so they are not part of the measurement
+        this.snapshot.getCharMasks();
+    }
+
+    @Benchmark
+    public FuzzyMatcher compile() {
+        return FuzzyMatcher.compile(this.query);
+    }
+
+    @Benchmark
+    public int[] search() {
+        return FuzzyMatcher.search(this.snapshot, this.query, this.limit);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.benchmark;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.panel.RecipeLayout;
+import dev.ceymikey.panel.RecipeView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the panel layout (which includes the content height)
+ * and the per frame work of finding the visible and hovered rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LayoutBenchmark {
+    // Height of the visible recipe area in the panel
+    private static final int VISIBLE_HEIGHT = 140;
+
+    @Param({"60", "1000", "10000", "100000"})
+    private int recipeCount;
+
+    private RecipeLayout layout;
+    private int[] positions;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SyntheticRecipes.fill(this.recipeCount);
+        this.layout = RecipeView.build("", PotionRecipeRegistry.getAllRecipes()).getLayout();
+
+        Random random = new Random(this.recipeCount);
+        this.positions = new int[1024];
+        for (int i = 0; i < this.positions.length; i++) {
+            this.positions[i] = random.nextInt(Math.max(1, this.layout.getContentHeight()));
+        }
+    }
+
+    @Benchmark
+    public int buildLayout() {
+        return RecipeView.build("", PotionRecipeRegistry.getAllRecipes()).getContentHeight();
+    }
+
+    @Benchmark
+    public int visibleRows() {
+        int scrollY = Math.min(nextPosition(), this.layout.getMaxScroll(VISIBLE_HEIGHT));
+        int drawn = 0;
+
+        for (int row = this.layout.firstVisibleRow(scrollY); row < this.layout.getRowCount(); row++) {
+            if (this.layout.getRowTop(row) > scrollY + VISIBLE_HEIGHT) {
+                break;
+            }
+            drawn++;
+        }
+
+        return drawn;
+    }
+
+    @Benchmark
+    public int hitTest() {
+        return this.layout.rowAt(nextPosition());
+    }
+
+    private int nextPosition() {
+        int position = this.positions[this.next];
+        this.next = (this.next + 1) & (this.positions.length - 1);
+        return position;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.benchmark;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.panel.RecipeView;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.registry.RegistrySnapshot;
+import dev.ceymikey.search.SearchNormalizer;
+import dev.ceymikey.search.SearchSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the trigram index against a plain scan and measures typing a query
+ * one character at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+    @Param({"60", "1000", "10000", "100000"})
+    private int recipeCount;
+
+    @Param({"fire", "potion of", "magma cream", "zzz"})
+    private String query;
+
+    private char[] needle;
+    private String[] typedPrefixes;
+    private List<PotionRecipe> recipes;
+    private RegistrySnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        SyntheticRecipes.fill(this.recipeCount);
+        this.snapshot = PotionRecipeRegistry.getSnapshot();
+        this.recipes = this.snapshot.getRecipes();
+        this.needle = SearchNormalizer.normalize(this.query).toCharArray();
+
+        this.typedPrefixes = new String[this.query.length()];
+        for (int i = 0; i < this.query.length(); i++) {
+            this.typedPrefixes[i] = this.query.substring(0, i + 1);
+        }
+
+        // Builds the index so it is not part of the measurement
+        this.snapshot.searchIds(this.needle);
+    }
+
+    @Benchmark
+    public int[] indexedSearch() {
+        return this.snapshot.searchIds(this.needle);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int count = 0;
+        for (PotionRecipe recipe : this.recipes) {
+            if (SearchNormalizer.contains(recipe.getSearchKey(), this.needle)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int[] typeQuery() {
+        SearchSession session = new SearchSession();
+        int[] ids = null;
+        for (String prefix : this.typedPrefixes) {
+            ids = session.updateIds(this.snapshot, prefix);
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public RecipeView filteredView() {
+        return RecipeView.build(this.query, this.snapshot.search(this.query));
+    }
+}
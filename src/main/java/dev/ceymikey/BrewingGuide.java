@@ -33,7 +33,8 @@ public class BrewingGuide implements ModInitializer {
 	public void onInitialize() {
 		LOGGER.info("Hello Fabric world!");
 		LOGGER.info("Initializing Brewing Guide mod by Ceymikey!");
-		PotionRecipeRegistry.registerVanillaRecipes();
-		LOGGER.info("Registered vanilla brewing recipes!");
+		// Recipes are loaded in the background when the first brewing stand is opened,
+		// see PotionRecipeRegistry#load().
+		LOGGER.info("Brewing recipes will be loaded when they are needed!");
 	}
 }
\ No newline at end of file
@@ -21,295 +21,280 @@
  */
 package dev.ceymikey;
 
+import dev.ceymikey.debug.SyntheticRecipeGenerator;
+import dev.ceymikey.mixin.BrewingRecipeAccessor;
+import dev.ceymikey.mixin.BrewingRecipeRegistryAccessor;
 import dev.ceymikey.potion.PotionCategory;
 import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.StackInterner;
+import dev.ceymikey.potion.StackKey;
+import dev.ceymikey.registry.RecipeBatch;
+import dev.ceymikey.registry.RecipeCache;
+import dev.ceymikey.registry.RegistrySnapshot;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
+import net.minecraft.potion.Potion;
 import net.minecraft.potion.Potions;
-import net.minecraft.potion.PotionUtil;
+import net.minecraft.recipe.BrewingRecipeRegistry;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Util;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds every known brewing recipe.
+ * <p>
+ * The recipes live in an immutable {@link RegistrySnapshot} that gets replaced as a whole when recipes are
+ * registered, so reading never needs a lock. Code that does more than one lookup (like a search followed by
+ * resolving the ids) should grab {@link #getSnapshot()} once and work with that, so a registration
+ * happening in between cannot mix up the recipe ids.
+ */
 public class PotionRecipeRegistry {
-    private static final List<PotionRecipe> allRecipes = new ArrayList<>();
-    private static final Map<PotionCategory, List<PotionRecipe>> recipesByCategory = new HashMap<>();
+    private static final AtomicReference<RegistrySnapshot> current = new AtomicReference<>(RegistrySnapshot.EMPTY.cleared());
+
+    // Writers append to the store shared by the snapshots, so only one of them may run at a time
+    private static final Object writeLock = new Object();
+
+    // Completes once the recipes are loaded, null until someone asks for them.
+    // Written under the class lock, read by isReady on the render thread without it.
+    private static volatile CompletableFuture<Void> loading;
+    // Set when the last load failed, the next call to load tries again
+    private static volatile boolean loadFailed;
+
+    /**
+     * Starts loading the recipes on a background thread, unless that already happened.
+     * Nothing needs the recipes until a brewing stand is opened, so there is no reason to
+     * slow down the game start with them. This also builds the search index right away.
+     * When loading failed, calling this again starts over.
+     * @return a future that completes once the recipes are ready to use
+     */
+    public static synchronized CompletableFuture<Void> load() {
+        if (loading == null) {
+            loadFailed = false;
+            loading = CompletableFuture.runAsync(() -> {
+                loadRecipes();
+                getSnapshot().getSearchIndex();
+            }, Util.getMainWorkerExecutor()).whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    BrewingGuide.LOGGER.error("Failed to load brewing recipes", throwable);
+                    onLoadFailed();
+                } else {
+                    BrewingGuide.LOGGER.info("Loaded {} brewing recipes!", getSnapshot().size());
+                }
+            });
+        }
+        return loading;
+    }
 
-    // Basically a glass bottle with water simplified...
-    private static final ItemStack WATER_BOTTLE = PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.WATER);
+    // Lets the next load start over, recipes registered before the failure are skipped as duplicates then
+    private static synchronized void onLoadFailed() {
+        loadFailed = true;
+        loading = null;
+    }
+
+    /* Checks if the recipes finished loading successfully, see {@link #load()} */
+    public static boolean isReady() {
+        CompletableFuture<Void> future = loading;
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
 
-    static {
-        // Initialize category lists
-        for (PotionCategory category : PotionCategory.values()) {
-            recipesByCategory.put(category, new ArrayList<>());
+    /* Checks if the last load failed, {@link #load()} tries again */
+    public static boolean hasLoadFailed() {
+        return loadFailed;
+    }
+
+    /**
+     * Loads the recipes from the recipe cache when it matches the current game and mod list,
+     * otherwise derives them from the brewing registry and updates the cache.
+     */
+    public static void loadRecipes() {
+        long fingerprint = RecipeCache.fingerprint();
+        RecipeBatch cached = RecipeCache.load(fingerprint);
+
+        if (cached != null) {
+            registerAll(cached);
+        } else {
+            registerAll(collectBrewingRecipes());
+            RecipeCache.save(getAllRecipes(), fingerprint);
+        }
+
+        // Never cached, the real recipes should not depend on a debug flag
+        if (SyntheticRecipeGenerator.STARTUP_COUNT > 0) {
+            registerAll(SyntheticRecipeGenerator.generate(SyntheticRecipeGenerator.STARTUP_COUNT));
         }
     }
 
-    public static void registerVanillaRecipes() {
-        // Base potions
-        register(WATER_BOTTLE, new ItemStack(Items.NETHER_WART),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.THICK),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.MUNDANE),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.MUNDANE),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.GHAST_TEAR),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.MUNDANE),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.RABBIT_FOOT),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.MUNDANE),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.BLAZE_POWDER),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.MUNDANE),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.GLISTERING_MELON_SLICE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.MUNDANE),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.SUGAR),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.MUNDANE),
-                PotionCategory.BASE);
-
-        register(WATER_BOTTLE, new ItemStack(Items.MAGMA_CREAM),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.MUNDANE),
-                PotionCategory.BASE);
-
-        // Regular potions
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.GOLDEN_CARROT),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.NIGHT_VISION),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.MAGMA_CREAM),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.FIRE_RESISTANCE),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.RABBIT_FOOT),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LEAPING),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.SUGAR),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.SWIFTNESS),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.PHANTOM_MEMBRANE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.SLOW_FALLING),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.BLAZE_POWDER),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRENGTH),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.TURTLE_HELMET),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.TURTLE_MASTER),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.PUFFERFISH),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.WATER_BREATHING),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.GLISTERING_MELON_SLICE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.HEALING),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.POISON),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.AWKWARD),
-                new ItemStack(Items.GHAST_TEAR),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.REGENERATION),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.WATER),
-                new ItemStack(Items.FERMENTED_SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.WEAKNESS),
-                PotionCategory.EFFECT);
-
-        // Extended duration potions
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.NIGHT_VISION),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_NIGHT_VISION),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.INVISIBILITY),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_INVISIBILITY),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LEAPING),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_LEAPING),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.FIRE_RESISTANCE),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_FIRE_RESISTANCE),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.SWIFTNESS),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_SWIFTNESS),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.SLOWNESS),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_SLOWNESS),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.WATER_BREATHING),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_WATER_BREATHING),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.POISON),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_POISON),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.REGENERATION),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_REGENERATION),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRENGTH),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_STRENGTH),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.WEAKNESS),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_WEAKNESS),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.SLOW_FALLING),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_SLOW_FALLING),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.TURTLE_MASTER),
-                new ItemStack(Items.REDSTONE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_TURTLE_MASTER),
-                PotionCategory.EXTENDED);
-
-        // Enhanced potions
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LEAPING),
-                new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_LEAPING),
-                PotionCategory.ENHANCED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.SWIFTNESS),
-                new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_SWIFTNESS),
-                PotionCategory.ENHANCED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.POISON),
-                new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_POISON),
-                PotionCategory.ENHANCED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.REGENERATION),
-                new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_REGENERATION),
-                PotionCategory.ENHANCED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRENGTH),
-                new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_STRENGTH),
-                PotionCategory.ENHANCED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.HEALING),
-                new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_HEALING),
-                PotionCategory.ENHANCED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.HARMING),
-                new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_SLOWNESS),
-                PotionCategory.ENHANCED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.TURTLE_MASTER),
-                new ItemStack(Items.GLOWSTONE_DUST),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_TURTLE_MASTER),
-                PotionCategory.ENHANCED);
-
-        // Conversion recipes (using Fermented Spider Eye)
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.NIGHT_VISION),
-                new ItemStack(Items.FERMENTED_SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.INVISIBILITY),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_NIGHT_VISION),
-                new ItemStack(Items.FERMENTED_SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_INVISIBILITY),
-                PotionCategory.EXTENDED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.HEALING),
-                new ItemStack(Items.FERMENTED_SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.HARMING),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_HEALING),
-                new ItemStack(Items.FERMENTED_SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_HARMING),
-                PotionCategory.ENHANCED);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.POISON),
-                new ItemStack(Items.FERMENTED_SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.HARMING),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.LONG_POISON),
-                new ItemStack(Items.FERMENTED_SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.HARMING),
-                PotionCategory.EFFECT);
-
-        register(PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_POISON),
-                new ItemStack(Items.FERMENTED_SPIDER_EYE),
-                PotionUtil.setPotion(new ItemStack(Items.POTION), Potions.STRONG_HARMING),
-                PotionCategory.ENHANCED);
+    /**
+     * Registers every mix known to the game's {@link BrewingRecipeRegistry}, including the ones added by other mods.
+     * Potion mixes (like awkward + magma cream) become one recipe per ingredient item.
+     * Item mixes (like gunpowder turning a potion into a splash potion) work for every potion,
+     * so they are shown once using a water bottle.
+     */
+    public static void registerBrewingRecipes() {
+        registerAll(collectBrewingRecipes());
     }
 
-    /* Method to register a potion recipe */
+    // Builds the batch for {@link #registerBrewingRecipes()} without registering it
+    private static RecipeBatch collectBrewingRecipes() {
+        // The game can have the same mix registered more than once, the registry skips those
+        RecipeBatch batch = batch();
+
+        for (Object entry : BrewingRecipeRegistryAccessor.getPotionRecipes()) {
+            BrewingRecipeAccessor mix = (BrewingRecipeAccessor) entry;
+            Potion base = (Potion) mix.getInput();
+            Potion result = (Potion) mix.getOutput();
+
+            for (ItemStack ingredient : mix.getIngredient().getMatchingStacks()) {
+                batch.add(StackInterner.pack(Items.POTION, base),
+                        StackInterner.pack(ingredient.getItem(), null),
+                        StackInterner.pack(Items.POTION, result),
+                        categorize(result));
+            }
+        }
+
+        for (Object entry : BrewingRecipeRegistryAccessor.getItemRecipes()) {
+            BrewingRecipeAccessor mix = (BrewingRecipeAccessor) entry;
+            Item base = (Item) mix.getInput();
+            Item result = (Item) mix.getOutput();
+
+            for (ItemStack ingredient : mix.getIngredient().getMatchingStacks()) {
+                batch.add(StackInterner.pack(base, StackKey.isPotion(base) ? Potions.WATER : null),
+                        StackInterner.pack(ingredient.getItem(), null),
+                        StackInterner.pack(result, StackKey.isPotion(result) ? Potions.WATER : null),
+                        PotionCategory.BASE);
+            }
+        }
+        return batch;
+    }
+
+    // Picks the category based on the potion we end up with
+    private static PotionCategory categorize(Potion result) {
+        if (result == Potions.AWKWARD || result == Potions.THICK || result == Potions.MUNDANE) {
+            return PotionCategory.BASE;
+        }
+
+        String name = Registries.POTION.getId(result).getPath();
+        if (name.startsWith("long_")) {
+            return PotionCategory.EXTENDED;
+        } else if (name.startsWith("strong_")) {
+            return PotionCategory.ENHANCED;
+        }
+
+        return PotionCategory.EFFECT;
+    }
+
+    /**
+     * Registers a single potion recipe.
+     * Every call publishes a new snapshot, which copies the recipe and category lists of the previous one.
+     * So registering n recipes one at a time costs O(n²), callers with more than a few recipes must put them
+     * into one {@link RecipeBatch} and use {@link #registerAll(RecipeBatch)} instead.
+     */
     public static void register(ItemStack basePotion, ItemStack ingredient, ItemStack result, PotionCategory category) {
-        PotionRecipe recipe = new PotionRecipe(basePotion, ingredient, result, category);
-        allRecipes.add(recipe);
-        recipesByCategory.get(category).add(recipe);
+        registerAll(batch().add(basePotion, ingredient, result, category));
+    }
+
+    /* Starts a new batch of recipes, see {@link #registerAll(RecipeBatch)} */
+    public static RecipeBatch batch() {
+        return new RecipeBatch();
+    }
+
+    /**
+     * Registers every recipe of the batch at once.
+     * Compared to registering them one by one this creates only a single new snapshot,
+     * so the category lists and the search index are built once instead of for every recipe.
+     * Mixes that are already registered (same base and ingredient) are skipped.
+     * @param batch the recipes to add
+     * @return the snapshot containing the new recipes
+     */
+    public static RegistrySnapshot registerAll(RecipeBatch batch) {
+        if (batch.isEmpty()) {
+            return getSnapshot();
+        }
+
+        synchronized (writeLock) {
+            RegistrySnapshot snapshot = current.get().withAdded(batch);
+            current.set(snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Rebuilds the search keys of every recipe.
+     * Called when the client language (and so every translated item name) changes.
+     * @return the snapshot with the new search keys
+     */
+    public static RegistrySnapshot rebuildSearchKeys() {
+        synchronized (writeLock) {
+            // The old snapshot keeps its keys and search index, anyone still searching it is not affected
+            RegistrySnapshot snapshot = current.get().withRebuiltSearchKeys();
+            current.set(snapshot);
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns the current snapshot of the registry.
+     * A snapshot never changes, registering recipes replaces it with a new one.
+     */
+    public static RegistrySnapshot getSnapshot() {
+        return current.get();
+    }
+
+    /**
+     * Finds every recipe whose result, ingredient or base name contains the query.
+     * @param query the raw search text
+     * @return the matching recipes in registration order
+     */
+    public static List<PotionRecipe> search(String query) {
+        return getSnapshot().search(query);
+    }
+
+    /* Returns the recipe with the given id in the current snapshot */
+    public static PotionRecipe getRecipe(int id) {
+        return getSnapshot().getRecipe(id);
+    }
+
+    /**
+     * Returns the current version of the registry.
+     * Anything caching recipe ids or search results should be thrown away when this changes.
+     */
+    public static int getVersion() {
+        return getSnapshot().getVersion();
+    }
+
+    /* Removes every registered recipe */
+    public static void clear() {
+        synchronized (writeLock) {
+            current.set(current.get().cleared());
+        }
     }
 
     /* Returns all registered recipes. */
     public static List<PotionRecipe> getAllRecipes() {
-        return Collections.unmodifiableList(allRecipes);
+        return getSnapshot().getRecipes();
     }
 
     /* Method to get all registered potion recipes */
     public static List<PotionRecipe> getRecipesByCategory(PotionCategory category) {
-        return Collections.unmodifiableList(recipesByCategory.getOrDefault(category, new ArrayList<>()));
+        return getSnapshot().getRecipesByCategory(category);
+    }
+
+    /* Returns the recipes using the item as ingredient */
+    public static List<PotionRecipe> getRecipesByIngredient(Item ingredient) {
+        return getSnapshot().getRecipesByIngredient(ingredient);
+    }
+
+    /* Returns the recipes brewed from the base potion */
+    public static List<PotionRecipe> getRecipesByBase(ItemStack base) {
+        return getSnapshot().getRecipesByBase(base);
+    }
+
+    /* Returns the recipes producing the potion */
+    public static List<PotionRecipe> getRecipesByResult(ItemStack result) {
+        return getSnapshot().getRecipesByResult(result);
     }
 
     /* Returns all categories of potion recipes */
@@ -0,0 +1,180 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.brewing;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.StackKey;
+import dev.ceymikey.registry.RegistrySnapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans multi step brews, like going from a water bottle all the way to a long fire resistance potion.
+ * <p>
+ * The registered recipes form a graph where every potion is a node and every recipe an edge
+ * from its base to its result. For each target we walk that graph backwards once, following
+ * {@link RegistrySnapshot#getRecipesByResult(long)}, which gives us the shortest way to the target
+ * from every potion at the same time. Plans are cached per
+ * (source, target) and everything is thrown away when the registry changes.
+ */
+public final class BrewingPlanner {
+    // Snapshot the trees and plans were built from, its lookup knows the recipes of every result
+    private static RegistrySnapshot snapshot = RegistrySnapshot.EMPTY;
+    private static final Map<StackKey, PathTree> treesByTarget = new HashMap<>();
+    private static final Map<PlanKey, BrewingPlan> plans = new HashMap<>();
+    private static int registryVersion = -1;
+
+    private BrewingPlanner() {
+    }
+
+    /**
+     * Finds the shortest sequence of brews from one potion to another.
+     * @param source the potion to start with
+     * @param target the potion to end up with
+     * @return the plan, or null if the target can not be brewed from the source
+     */
+    public static BrewingPlan plan(StackKey source, StackKey target) {
+        refreshGraph();
+
+        PlanKey key = new PlanKey(source, target);
+        BrewingPlan cached = plans.get(key);
+        if (cached != null || plans.containsKey(key)) {
+            return cached;
+        }
+
+        BrewingPlan plan = getTree(target).walk(source, target);
+        plans.put(key, plan);
+        return plan;
+    }
+
+    /**
+     * Finds the shortest plan to the target starting from any of the given potions.
+     * @param sources the potions the player has, for example from the availability index
+     * @param target the potion to end up with
+     * @return the shortest plan, or null if none of the sources lead to the target
+     */
+    public static BrewingPlan planFrom(Collection<StackKey> sources, StackKey target) {
+        refreshGraph();
+
+        PathTree tree = getTree(target);
+        StackKey best = null;
+        int bestDistance = Integer.MAX_VALUE;
+
+        for (StackKey source : sources) {
+            int distance = tree.distance(source);
+            if (distance < bestDistance) {
+                best = source;
+                bestDistance = distance;
+            }
+        }
+
+        return best == null ? null : plan(best, target);
+    }
+
+    /* Checks if the target can be brewed from the source at all */
+    public static boolean canReach(StackKey source, StackKey target) {
+        refreshGraph();
+        return getTree(target).distance(source) != Integer.MAX_VALUE;
+    }
+
+    // Forgets every tree and plan when recipes were added or removed since we last looked
+    private static void refreshGraph() {
+        // One snapshot so the version always matches the recipes we read
+        RegistrySnapshot snapshot = PotionRecipeRegistry.getSnapshot();
+        int version = snapshot.getVersion();
+        if (version == registryVersion) {
+            return;
+        }
+
+        BrewingPlanner.snapshot = snapshot;
+        treesByTarget.clear();
+        plans.clear();
+        registryVersion = version;
+    }
+
+    private static PathTree getTree(StackKey target) {
+        return treesByTarget.computeIfAbsent(target, PathTree::build);
+    }
+
+    /**
+     * Shortest paths from every potion to one target.
+     * For every potion we store the recipe that brings it one step closer.
+     */
+    private record PathTree(Map<StackKey, PotionRecipe> nextSteps, Map<StackKey, Integer> distances) {
+
+        // Breadth first search backwards from the target
+        static PathTree build(StackKey target) {
+            Map<StackKey, PotionRecipe> nextSteps = new HashMap<>();
+            Map<StackKey, Integer> distances = new HashMap<>();
+            Deque<StackKey> queue = new ArrayDeque<>();
+
+            distances.put(target, 0);
+            queue.add(target);
+
+            while (!queue.isEmpty()) {
+                StackKey current = queue.poll();
+                int distance = distances.get(current);
+
+                for (PotionRecipe recipe : snapshot.getRecipesByResult(current.pack())) {
+                    StackKey base = recipe.getBaseKey();
+                    if (!distances.containsKey(base)) {
+                        distances.put(base, distance + 1);
+                        nextSteps.put(base, recipe);
+                        queue.add(base);
+                    }
+                }
+            }
+
+            return new PathTree(nextSteps, distances);
+        }
+
+        int distance(StackKey source) {
+            return this.distances.getOrDefault(source, Integer.MAX_VALUE);
+        }
+
+        BrewingPlan walk(StackKey source, StackKey target) {
+            if (!this.distances.containsKey(source)) {
+                return null;
+            }
+
+            List<PotionRecipe> steps = new ArrayList<>();
+            StackKey current = source;
+            while (!current.equals(target)) {
+                PotionRecipe step = this.nextSteps.get(current);
+                steps.add(step);
+                current = step.getResultKey();
+            }
+
+            return new BrewingPlan(source, target, List.copyOf(steps));
+        }
+    }
+
+    private record PlanKey(StackKey source, StackKey target) {
+    }
+}
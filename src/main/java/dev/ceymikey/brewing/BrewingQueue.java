@@ -0,0 +1,179 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.brewing;
+
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.PotionVariant;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.ScreenHandlerListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Recipes waiting to be brewed one after another in the same brewing stand.
+ * <p>
+ * Listens to the brewing stand screen handler to find out when a brew is done: the brew time property
+ * drops back to 0 and the potion slots changed while it was counting down. A brew time dropping to 0
+ * without new potions means the brew got cancelled, for example because the ingredient was taken out.
+ * The screen asks {@link #pollFinished()} every tick and sets up the next recipe, clicking from
+ * inside the listener is not allowed because it runs while the handler sends its updates.
+ * <p>
+ * A recipe that was set up but never starts brewing, for example because the server refused a click,
+ * is put back to the front and tried again after {@link #START_TIMEOUT_TICKS}. After
+ * {@link #MAX_START_ATTEMPTS} tries it is dropped so the rest of the queue does not wait forever.
+ */
+public class BrewingQueue implements ScreenHandlerListener {
+    // Property 0 of the brewing stand is the remaining brew time, 1 is the fuel
+    private static final int BREW_TIME_PROPERTY = 0;
+    // Two seconds, the stand starts brewing within a tick or two once everything is in place
+    private static final int START_TIMEOUT_TICKS = 40;
+    private static final int MAX_START_ATTEMPTS = 3;
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private boolean brewing;
+    private boolean potionsChanged;
+    private boolean finished;
+
+    // The recipe that was set up and the stand did not start brewing yet, null if none
+    private Entry awaitingStart;
+    private int ticksAwaitingStart;
+    // How often the last recipe taken out of the queue was set up, to give up on it eventually
+    private Entry lastStarted;
+    private int startAttempts;
+
+    @Override
+    public void onSlotUpdate(ScreenHandler handler, int slotId, ItemStack stack) {
+        if (this.brewing && slotId < BrewingTransactionPlanner.POTION_SLOT_COUNT) {
+            this.potionsChanged = true;
+        }
+    }
+
+    @Override
+    public void onPropertyUpdate(ScreenHandler handler, int property, int value) {
+        if (property != BREW_TIME_PROPERTY) {
+            return;
+        }
+
+        if (value > 0 && !this.brewing) {
+            this.brewing = true;
+            this.potionsChanged = false;
+            this.awaitingStart = null;
+            this.lastStarted = null;
+        } else if (value == 0 && this.brewing) {
+            this.brewing = false;
+            this.finished |= this.potionsChanged;
+        }
+    }
+
+    /* Adds a recipe to the end of the queue */
+    public void enqueue(PotionRecipe recipe, PotionVariant variant) {
+        this.entries.addLast(new Entry(recipe, variant));
+    }
+
+    /* Adds every step of the plan to the end of the queue */
+    public void enqueue(BrewingPlan plan, PotionVariant variant) {
+        for (PotionRecipe step : plan.steps()) {
+            enqueue(step, variant);
+        }
+    }
+
+    /**
+     * Checks if a brew finished since the last call.
+     * @return true once for every finished brew
+     */
+    public boolean pollFinished() {
+        boolean result = this.finished;
+        this.finished = false;
+        return result;
+    }
+
+    /* The recipe {@link #next()} would return, without taking it out of the queue */
+    public Entry peek() {
+        return this.entries.peekFirst();
+    }
+
+    /**
+     * Takes the next recipe to brew out of the queue.
+     * The queue then waits for the stand to start brewing before it counts as idle again.
+     * @return the next recipe, or null if the queue is empty
+     */
+    public Entry next() {
+        Entry entry = this.entries.pollFirst();
+        if (entry != null) {
+            this.startAttempts = entry == this.lastStarted ? this.startAttempts + 1 : 1;
+            this.lastStarted = entry;
+            this.awaitingStart = entry;
+            this.ticksAwaitingStart = 0;
+        }
+        return entry;
+    }
+
+    /**
+     * Counts the ticks the stand takes to start the recipe that was set up, called every tick by the screen.
+     * Once it took too long the recipe goes back to the front of the queue, or is dropped after too many tries.
+     * @return true if the queue stopped waiting this tick
+     */
+    public boolean tick() {
+        if (this.awaitingStart == null || this.brewing || ++this.ticksAwaitingStart < START_TIMEOUT_TICKS) {
+            return false;
+        }
+
+        if (this.startAttempts < MAX_START_ATTEMPTS) {
+            this.entries.addFirst(this.awaitingStart);
+        } else {
+            this.lastStarted = null;
+        }
+        this.awaitingStart = null;
+        return true;
+    }
+
+    /* Checks if the stand is neither brewing nor about to start, so the next recipe can be set up right away */
+    public boolean isIdle() {
+        return !this.brewing && this.awaitingStart == null;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public boolean isEmpty() {
+        return this.entries.isEmpty();
+    }
+
+    /* Forgets every queued recipe, also when the stand never started the last one */
+    public void clear() {
+        this.entries.clear();
+        this.awaitingStart = null;
+        this.lastStarted = null;
+        this.finished = false;
+    }
+
+    /**
+     * A queued recipe.
+     * @param recipe the recipe to brew
+     * @param variant the container to brew it in
+     */
+    public record Entry(PotionRecipe recipe, PotionVariant variant) {
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.brewing;
+
+import dev.ceymikey.inventory.InventoryAvailabilityIndex;
+import dev.ceymikey.potion.StackInterner;
+import net.minecraft.item.ItemStack;
+import net.minecraft.screen.slot.SlotActionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Works out the slot clicks that move the items of a recipe from the player's inventory into the brewing stand.
+ * <p>
+ * Every click is a packet to the server, so this prefers QUICK_MOVE (shift click), which moves a stack with
+ * a single click. The brewing stand sends blaze powder to the fuel slot, single potions to the first empty
+ * potion slot and ingredients to the ingredient slot. Everything QUICK_MOVE cannot do goes through the cursor:
+ * swapping out a different ingredient, blaze powder used as the ingredient, and stacked potions, which get split
+ * one by one over the empty potion slots with right clicks.
+ * <p>
+ * The planner only looks at a copy of the slots, so it never changes anything by itself.
+ * Potion slots that already hold something are left alone, unless asked to clear them for the brewing queue.
+ */
+public final class BrewingTransactionPlanner {
+    public static final int POTION_SLOT_COUNT = 3;
+
+    // Mouse buttons of a PICKUP click
+    private static final int LEFT_CLICK = 0;
+    private static final int RIGHT_CLICK = 1;
+
+    private BrewingTransactionPlanner() {
+    }
+
+    /**
+     * Plans filling every empty potion slot, the ingredient slot and the fuel slot.
+     * @param slots the stacks of every slot of the brewing stand screen handler
+     * @param baseKey the packed key of the potion to brew, see {@link StackInterner}
+     * @param ingredientKey the packed key of the ingredient
+     * @return the clicks to send, in order
+     */
+    public static Transaction plan(List<ItemStack> slots, long baseKey, long ingredientKey) {
+        return plan(slots, baseKey, ingredientKey, false);
+    }
+
+    /**
+     * Same as {@link #plan(List, long, long)}, but can first move finished potions out of the potion slots.
+     * Potions that already are the base stay, in a brewing chain those are the results of the previous step.
+     * Potions do not stack, so each one needs an empty inventory slot. Results that do not fit stay where they are
+     * and their potion slot is not filled.
+     * @param clearResults true to QUICK_MOVE every other potion into the player's inventory first
+     */
+    public static Transaction plan(List<ItemStack> slots, long baseKey, long ingredientKey, boolean clearResults) {
+        Inventory inventory = new Inventory(slots);
+        List<Click> clicks = new ArrayList<>();
+
+        if (clearResults) {
+            for (int slot = 0; slot < POTION_SLOT_COUNT; slot++) {
+                if (inventory.keys[slot] == StackInterner.NONE || inventory.keys[slot] == baseKey) {
+                    continue;
+                }
+
+                // The stand fills the inventory from the last slot, a full inventory would ignore the click
+                int target = inventory.lastEmptyInventorySlot();
+                if (target == -1) {
+                    continue;
+                }
+                clicks.add(Click.quickMove(slot));
+                inventory.move(slot, target, inventory.counts[slot]);
+            }
+        }
+        boolean needsFuel = inventory.keys[InventoryAvailabilityIndex.FUEL_SLOT] != InventoryAvailabilityIndex.BLAZE_POWDER;
+
+        // Ingredient first, when it is blaze powder it might have to share its stack with the fuel
+        int ingredientSource = inventory.keys[InventoryAvailabilityIndex.INGREDIENT_SLOT] == ingredientKey
+                ? -1
+                : inventory.find(ingredientKey);
+
+        if (ingredientSource != -1) {
+            if (inventory.keys[InventoryAvailabilityIndex.INGREDIENT_SLOT] != StackInterner.NONE) {
+                // Something else is in there, QUICK_MOVE cannot swap so we go through the cursor
+                clicks.add(Click.pickup(ingredientSource, LEFT_CLICK));
+                clicks.add(Click.pickup(InventoryAvailabilityIndex.INGREDIENT_SLOT, LEFT_CLICK));
+                clicks.add(Click.pickup(ingredientSource, LEFT_CLICK));
+                inventory.swap(ingredientSource, InventoryAvailabilityIndex.INGREDIENT_SLOT);
+            } else if (ingredientKey == InventoryAvailabilityIndex.BLAZE_POWDER) {
+                // QUICK_MOVE would put it in the fuel slot
+                clicks.add(Click.pickup(ingredientSource, LEFT_CLICK));
+                if (needsFuel && inventory.counts[ingredientSource] > 1) {
+                    // One for the ingredient, the rest fuels the stand
+                    clicks.add(Click.pickup(InventoryAvailabilityIndex.INGREDIENT_SLOT, RIGHT_CLICK));
+                    clicks.add(Click.pickup(InventoryAvailabilityIndex.FUEL_SLOT, LEFT_CLICK));
+                    inventory.move(ingredientSource, InventoryAvailabilityIndex.INGREDIENT_SLOT, 1);
+                    inventory.move(ingredientSource, InventoryAvailabilityIndex.FUEL_SLOT, inventory.counts[ingredientSource]);
+                    needsFuel = false;
+                } else {
+                    clicks.add(Click.pickup(InventoryAvailabilityIndex.INGREDIENT_SLOT, LEFT_CLICK));
+                    inventory.move(ingredientSource, InventoryAvailabilityIndex.INGREDIENT_SLOT, inventory.counts[ingredientSource]);
+                }
+            } else {
+                clicks.add(Click.quickMove(ingredientSource));
+                inventory.move(ingredientSource, InventoryAvailabilityIndex.INGREDIENT_SLOT, inventory.counts[ingredientSource]);
+            }
+        }
+
+        // The fuel slot is empty here, so QUICK_MOVE puts the whole stack in there
+        if (needsFuel) {
+            int fuelSource = inventory.find(InventoryAvailabilityIndex.BLAZE_POWDER);
+            if (fuelSource != -1) {
+                clicks.add(Click.quickMove(fuelSource));
+                inventory.move(fuelSource, InventoryAvailabilityIndex.FUEL_SLOT, inventory.counts[fuelSource]);
+            }
+        }
+
+        int potionsPlaced = 0;
+        int emptySlot = inventory.nextEmptyPotionSlot(0);
+        for (int source = InventoryAvailabilityIndex.FIRST_INVENTORY_SLOT; source < inventory.size() && emptySlot != -1; source++) {
+            if (inventory.keys[source] != baseKey) {
+                continue;
+            }
+
+            if (inventory.counts[source] == 1) {
+                // Goes to the first empty potion slot, which is the one we are looking at
+                clicks.add(Click.quickMove(source));
+                inventory.move(source, emptySlot, 1);
+                potionsPlaced++;
+                emptySlot = inventory.nextEmptyPotionSlot(emptySlot + 1);
+                continue;
+            }
+
+            // Stacked potions do not QUICK_MOVE into the stand, so right click them in one at a time
+            clicks.add(Click.pickup(source, LEFT_CLICK));
+            int held = inventory.counts[source];
+            while (held > 0 && emptySlot != -1) {
+                clicks.add(Click.pickup(emptySlot, RIGHT_CLICK));
+                inventory.move(source, emptySlot, 1);
+                held--;
+                potionsPlaced++;
+                emptySlot = inventory.nextEmptyPotionSlot(emptySlot + 1);
+            }
+
+            // Put back what did not fit
+            if (held > 0) {
+                clicks.add(Click.pickup(source, LEFT_CLICK));
+            }
+        }
+
+        return new Transaction(List.copyOf(clicks), potionsPlaced);
+    }
+
+    /**
+     * The planned clicks.
+     * @param clicks the clicks to send, in order
+     * @param potionsPlaced how many potion slots get filled
+     */
+    public record Transaction(List<Click> clicks, int potionsPlaced) {
+
+        /* Amount of packets sending this transaction costs */
+        public int size() {
+            return this.clicks.size();
+        }
+
+        public boolean isEmpty() {
+            return this.clicks.isEmpty();
+        }
+    }
+
+    /**
+     * A single slot click, sent with {@code onMouseClick}.
+     * @param slotId the id of the slot in the screen handler
+     * @param button the mouse button
+     * @param action the kind of click
+     */
+    public record Click(int slotId, int button, SlotActionType action) {
+
+        static Click pickup(int slotId, int button) {
+            return new Click(slotId, button, SlotActionType.PICKUP);
+        }
+
+        static Click quickMove(int slotId) {
+            return new Click(slotId, LEFT_CLICK, SlotActionType.QUICK_MOVE);
+        }
+    }
+
+    // Packed keys and counts of every slot, updated as we plan
+    private static final class Inventory {
+        final long[] keys;
+        final int[] counts;
+
+        Inventory(List<ItemStack> slots) {
+            this.keys = new long[slots.size()];
+            this.counts = new int[slots.size()];
+
+            for (int i = 0; i < slots.size(); i++) {
+                ItemStack stack = slots.get(i);
+                this.keys[i] = stack.isEmpty() ? StackInterner.NONE : StackInterner.pack(stack);
+                this.counts[i] = stack.getCount();
+            }
+        }
+
+        int size() {
+            return this.keys.length;
+        }
+
+        // First player inventory slot holding the key
+        int find(long key) {
+            for (int i = InventoryAvailabilityIndex.FIRST_INVENTORY_SLOT; i < this.keys.length; i++) {
+                if (this.keys[i] == key) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int nextEmptyPotionSlot(int from) {
+            for (int i = from; i < POTION_SLOT_COUNT; i++) {
+                if (this.keys[i] == StackInterner.NONE) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void move(int from, int to, int count) {
+            this.keys[to] = this.keys[from];
+            this.counts[to] += count;
+            this.counts[from] -= count;
+            if (this.counts[from] == 0) {
+                this.keys[from] = StackInterner.NONE;
+            }
+        }
+
+        int lastEmptyInventorySlot() {
+            for (int i = this.keys.length - 1; i >= InventoryAvailabilityIndex.FIRST_INVENTORY_SLOT; i--) {
+                if (this.keys[i] == StackInterner.NONE) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void swap(int a, int b) {
+            long key = this.keys[a];
+            int count = this.counts[a];
+            this.keys[a] = this.keys[b];
+            this.counts[a] = this.counts[b];
+            this.keys[b] = key;
+            this.counts[b] = count;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.debug;
+
+import dev.ceymikey.BrewingGuide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lightweight frame timers for the recipe panel.
+ * <p>
+ * Every phase of rendering the panel is timed separately and the totals of each frame
+ * are kept in a small ring buffer, so we can tell which part is slow when players report
+ * FPS drops. Can be enabled with {@code -Dbrewingguide.profiler=true} or by pressing F6
+ * in the brewing stand screen. When disabled every call returns right away.
+ * <p>
+ * Only meant to be used from the render thread.
+ */
+public final class PanelProfiler {
+    private static final int SAMPLE_COUNT = 512;
+    // How many frames the overlay text stays the same before the percentiles are updated
+    private static final int OVERLAY_REFRESH_FRAMES = 20;
+
+    public enum Phase {
+        FILTER("Filter"),
+        SCROLLBAR("Scrollbar"),
+        ITEMS("Items"),
+        AVAILABILITY("Availability"),
+        TOOLTIP("Tooltip"),
+        TOTAL("Total");
+
+        private final String displayName;
+
+        Phase(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return this.displayName;
+        }
+    }
+
+    public enum Counter {
+        ROWS_DRAWN("Rows drawn"),
+        ITEMS_DRAWN("Items drawn"),
+        VIEW_REBUILDS("View rebuilds"),
+        PANEL_REDRAWS("Panel redraws");
+
+        private final String displayName;
+
+        Counter(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return this.displayName;
+        }
+    }
+
+    private static boolean enabled = Boolean.getBoolean("brewingguide.profiler");
+
+    // Time spent in every phase during the current frame
+    private static final long[] frameNanos = new long[Phase.values().length];
+    private static final long[][] samples = new long[Phase.values().length][SAMPLE_COUNT];
+    private static final long[] frameCounters = new long[Counter.values().length];
+    private static final long[] lastFrameCounters = new long[Counter.values().length];
+    private static int sampleIndex;
+    private static int sampleCount;
+
+    private static List<String> overlayLines = List.of();
+    private static int framesSinceOverlay;
+
+    private PanelProfiler() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        if (PanelProfiler.enabled && !enabled) {
+            dump();
+        }
+
+        PanelProfiler.enabled = enabled;
+        reset();
+    }
+
+    /**
+     * Starts timing a phase.
+     * @return the start time to pass to {@link #stop(Phase, long)}, or 0 when disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /* Adds the time since start to the phase */
+    public static void stop(Phase phase, long start) {
+        if (start != 0L) {
+            frameNanos[phase.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    public static void count(Counter counter, int amount) {
+        if (enabled) {
+            frameCounters[counter.ordinal()] += amount;
+        }
+    }
+
+    /* Stores the times of the frame that just finished */
+    public static void endFrame() {
+        if (!enabled) {
+            return;
+        }
+
+        for (int phase = 0; phase < frameNanos.length; phase++) {
+            samples[phase][sampleIndex] = frameNanos[phase];
+            frameNanos[phase] = 0L;
+        }
+
+        System.arraycopy(frameCounters, 0, lastFrameCounters, 0, frameCounters.length);
+        Arrays.fill(frameCounters, 0L);
+
+        sampleIndex = (sampleIndex + 1) % SAMPLE_COUNT;
+        sampleCount = Math.min(sampleCount + 1, SAMPLE_COUNT);
+        framesSinceOverlay++;
+    }
+
+    /**
+     * Returns a percentile of the recorded frame times of a phase.
+     * @param phase the phase
+     * @param percentile between 0 and 100
+     * @return the time in nanoseconds
+     */
+    public static long getPercentile(Phase phase, double percentile) {
+        if (sampleCount == 0) {
+            return 0L;
+        }
+
+        long[] sorted = Arrays.copyOf(samples[phase.ordinal()], sampleCount);
+        Arrays.sort(sorted);
+
+        int index = (int) Math.ceil(percentile / 100.0 * sampleCount) - 1;
+        return sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+    }
+
+    /* Text shown on the debug overlay, only updated every few frames */
+    public static List<String> getOverlayLines() {
+        if (framesSinceOverlay >= OVERLAY_REFRESH_FRAMES || overlayLines.isEmpty()) {
+            overlayLines = summarize();
+            framesSinceOverlay = 0;
+        }
+        return overlayLines;
+    }
+
+    /* Writes the current percentiles to the log */
+    public static void dump() {
+        BrewingGuide.LOGGER.info("Recipe panel frame times over the last {} frames:", sampleCount);
+        for (String line : summarize()) {
+            BrewingGuide.LOGGER.info(line);
+        }
+    }
+
+    private static List<String> summarize() {
+        List<String> lines = new ArrayList<>();
+        for (Phase phase : Phase.values()) {
+            lines.add(String.format(Locale.ROOT, "%s: p50 %.3fms p95 %.3fms p99 %.3fms",
+                    phase.getDisplayName(),
+                    toMillis(getPercentile(phase, 50)),
+                    toMillis(getPercentile(phase, 95)),
+                    toMillis(getPercentile(phase, 99))));
+        }
+
+        for (Counter counter : Counter.values()) {
+            lines.add(counter.getDisplayName() + ": " + lastFrameCounters[counter.ordinal()]);
+        }
+        return lines;
+    }
+
+    private static void reset() {
+        Arrays.fill(frameNanos, 0L);
+        Arrays.fill(frameCounters, 0L);
+        Arrays.fill(lastFrameCounters, 0L);
+        sampleIndex = 0;
+        sampleCount = 0;
+        overlayLines = List.of();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
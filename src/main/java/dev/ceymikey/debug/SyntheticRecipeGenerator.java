@@ -0,0 +1,81 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.debug;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.potion.StackInterner;
+import dev.ceymikey.registry.RecipeBatch;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.potion.Potion;
+import net.minecraft.registry.Registries;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Makes up recipes so we can see how the panel behaves with the thousands of recipes big modpacks register.
+ * The same count always produces the same recipes, spread over every {@link PotionCategory}.
+ * <p>
+ * Start the game with {@code -Dbrewingguide.syntheticRecipes=10000} to add them next to the real recipes,
+ * the benchmarks use them as well. Nothing in here registers or removes recipes, replacing the real ones
+ * is left to the benchmarks, which are not part of the mod jar.
+ */
+public final class SyntheticRecipeGenerator {
+    // Amount of recipes to add when loading, 0 unless set through the system property
+    public static final int STARTUP_COUNT = Integer.getInteger("brewingguide.syntheticRecipes", 0);
+
+    private static final List<Item> CONTAINERS = List.of(Items.POTION, Items.SPLASH_POTION, Items.LINGERING_POTION);
+
+    private SyntheticRecipeGenerator() {
+    }
+
+    /**
+     * Generates the recipes without registering them.
+     * Walks through every container, potion and ingredient combination so no recipe repeats,
+     * the game registries allow for about 150 thousand of them.
+     * @param count the amount of recipes
+     * @return the batch to pass to {@link PotionRecipeRegistry#registerAll(RecipeBatch)}
+     */
+    public static RecipeBatch generate(int count) {
+        List<Potion> potions = Registries.POTION.stream().toList();
+        List<Item> ingredients = Registries.ITEM.stream().filter(item -> item != Items.AIR).toList();
+        PotionCategory[] categories = PotionCategory.values();
+        Random random = new Random(count);
+        RecipeBatch batch = PotionRecipeRegistry.batch();
+
+        for (int i = 0; i < count; i++) {
+            Item container = CONTAINERS.get(i % CONTAINERS.size());
+            Potion base = potions.get((i / CONTAINERS.size()) % potions.size());
+            Item ingredient = ingredients.get((i / (CONTAINERS.size() * potions.size())) % ingredients.size());
+            Potion result = potions.get(random.nextInt(potions.size()));
+
+            batch.add(
+                    StackInterner.pack(container, base),
+                    StackInterner.pack(ingredient, null),
+                    StackInterner.pack(container, result),
+                    categories[i % categories.length]);
+        }
+        return batch;
+    }
+}
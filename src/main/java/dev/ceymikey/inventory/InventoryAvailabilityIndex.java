@@ -0,0 +1,176 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.inventory;
+
+import dev.ceymikey.debug.jfr.AvailabilityUpdateEvent;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.PotionVariant;
+import dev.ceymikey.potion.StackInterner;
+import dev.ceymikey.potion.StackKey;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.screen.ScreenHandler;
+import net.minecraft.screen.ScreenHandlerListener;
+
+import java.util.Arrays;
+
+/**
+ * Tracks which brewing items the player has, so the recipe panel does not have to
+ * scan the inventory for every recipe on every frame.
+ * <p>
+ * The index is filled once when the screen opens and then kept up to date through
+ * slot updates of the {@link net.minecraft.screen.BrewingStandScreenHandler}.
+ * Stacks are tracked by their packed key, see {@link StackInterner}.
+ */
+public class InventoryAvailabilityIndex implements ScreenHandlerListener {
+    // Slot layout of the brewing stand screen handler
+    public static final int INGREDIENT_SLOT = 3;
+    public static final int FUEL_SLOT = 4;
+    public static final int FIRST_INVENTORY_SLOT = 5;
+
+    public static final long BLAZE_POWDER = StackInterner.pack(Items.BLAZE_POWDER, null);
+
+    // Amount of player inventory slots holding each key
+    private final Long2IntOpenHashMap slotCounts = new Long2IntOpenHashMap();
+    private long[] slotKeys = new long[0];
+    private boolean hasFuel;
+
+    // Increased whenever anything tracked changes, so things drawn from the index know when to redraw
+    private int revision;
+
+    /**
+     * Rebuilds the whole index from the current slots of the handler.
+     * @param handler the brewing stand screen handler
+     */
+    public void scan(ScreenHandler handler) {
+        reset(handler.slots.size());
+
+        for (int i = 0; i < handler.slots.size(); i++) {
+            updateSlot(i, handler.slots.get(i).getStack());
+        }
+    }
+
+    /* Forgets everything, as if all slots were empty */
+    public void reset(int slotCount) {
+        this.slotCounts.clear();
+        this.slotKeys = new long[slotCount];
+        Arrays.fill(this.slotKeys, StackInterner.NONE);
+        this.hasFuel = false;
+        this.revision++;
+    }
+
+    @Override
+    public void onSlotUpdate(ScreenHandler handler, int slotId, ItemStack stack) {
+        updateSlot(slotId, stack);
+    }
+
+    @Override
+    public void onPropertyUpdate(ScreenHandler handler, int property, int value) {
+        // Brew time and fuel level do not change what the player has
+    }
+
+    /* Replaces whatever was tracked for the slot with the new stack */
+    public void updateSlot(int slotId, ItemStack stack) {
+        if (slotId == FUEL_SLOT) {
+            boolean fuel = stack.isOf(Items.BLAZE_POWDER);
+            if (fuel != this.hasFuel) {
+                this.hasFuel = fuel;
+                this.revision++;
+            }
+            return;
+        }
+
+        // Only the player inventory counts as available
+        if (slotId < FIRST_INVENTORY_SLOT || slotId >= this.slotKeys.length) {
+            return;
+        }
+
+        long previous = this.slotKeys[slotId];
+        long current = stack.isEmpty() ? StackInterner.NONE : StackInterner.pack(stack);
+
+        if (previous == current) {
+            return;
+        }
+
+        AvailabilityUpdateEvent event = new AvailabilityUpdateEvent();
+        event.begin();
+
+        if (previous != StackInterner.NONE && this.slotCounts.addTo(previous, -1) <= 1) {
+            this.slotCounts.remove(previous);
+        }
+
+        if (current != StackInterner.NONE) {
+            this.slotCounts.addTo(current, 1);
+        }
+
+        this.slotKeys[slotId] = current;
+        this.revision++;
+
+        if (event.shouldCommit()) {
+            event.slotId = slotId;
+            event.trackedCount = this.slotCounts.size();
+            event.commit();
+        }
+    }
+
+    /* Checks if the player has the item (and potion type) in their inventory */
+    public boolean has(StackKey key) {
+        return has(key.pack());
+    }
+
+    /* Same as {@link #has(StackKey)} with a packed key */
+    public boolean has(long key) {
+        return this.slotCounts.get(key) > 0;
+    }
+
+    /* The packed keys of everything the player currently has, as a read only view */
+    public LongSet getAvailableKeys() {
+        return LongSets.unmodifiable(this.slotCounts.keySet());
+    }
+
+    public int getRevision() {
+        return this.revision;
+    }
+
+    /* Checks if the brewing stand has blaze powder in its fuel slot */
+    public boolean hasFuel() {
+        return this.hasFuel;
+    }
+
+    /* Fuel counts as available when it is in the stand already or in the player's inventory */
+    public boolean hasBlazePowder() {
+        return this.hasFuel || has(BLAZE_POWDER);
+    }
+
+    /* Checks if the player has everything needed to brew the recipe */
+    public boolean canBrew(PotionRecipe recipe) {
+        return canBrew(recipe, PotionVariant.NORMAL);
+    }
+
+    /* Checks if the player has everything needed to brew the recipe in the container of the variant */
+    public boolean canBrew(PotionRecipe recipe, PotionVariant variant) {
+        return has(recipe.getPackedBaseKey(variant)) && has(recipe.getPackedIngredientKey()) && hasBlazePowder();
+    }
+}
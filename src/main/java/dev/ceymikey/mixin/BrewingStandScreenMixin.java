@@ -21,10 +21,26 @@
  */
 package dev.ceymikey.mixin;
 
+import dev.ceymikey.BrewingGuide;
 import dev.ceymikey.PotionRecipeRegistry;
-import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.brewing.BrewingPlan;
+import dev.ceymikey.brewing.BrewingPlanner;
+import dev.ceymikey.brewing.BrewingQueue;
+import dev.ceymikey.brewing.BrewingTransactionPlanner;
+import dev.ceymikey.debug.PanelProfiler;
+import dev.ceymikey.debug.jfr.BrewingSetupEvent;
+import dev.ceymikey.panel.PanelRenderCache;
+import dev.ceymikey.panel.RecipeLayout;
+import dev.ceymikey.panel.RecipePanel;
+import dev.ceymikey.panel.RecipeView;
 import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.PotionVariant;
+import dev.ceymikey.potion.StackInterner;
+import dev.ceymikey.potion.StackKey;
+import dev.ceymikey.registry.RegistrySnapshot;
 import dev.ceymikey.interfaces.ISearchFieldProvider;
+import dev.ceymikey.inventory.InventoryAvailabilityIndex;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.client.gui.screen.ingame.BrewingStandScreen;
@@ -32,14 +48,13 @@ import net.minecraft.client.gui.screen.ingame.HandledScreen;
 import net.minecraft.client.gui.widget.TextFieldWidget;
 import net.minecraft.client.sound.PositionedSoundInstance;
 import net.minecraft.entity.player.PlayerInventory;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraft.item.Items;
-import net.minecraft.potion.PotionUtil;
 import net.minecraft.screen.BrewingStandScreenHandler;
 import net.minecraft.screen.slot.Slot;
-import net.minecraft.screen.slot.SlotActionType;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.text.Text;
+import org.lwjgl.glfw.GLFW;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
@@ -47,25 +62,43 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Mixin(BrewingStandScreen.class)
 public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStandScreenHandler> implements ISearchFieldProvider {
     private static final int RECIPE_PANEL_WIDTH = 120;
-    private List<PotionRecipe> allRecipes;
+    private static final int RECIPE_LIST_HEIGHT = 140;
+    private static final int NO_REVISION = -1;
+    // Registry snapshot the panel shows, replaced when other recipes get registered
+    private RegistrySnapshot snapshot = RegistrySnapshot.EMPTY;
+    // True while the registry is still loading in the background
+    private boolean recipesLoading = false;
     private float scrollOffset = 0.0F;
     private boolean isScrolling = false;
-    private int visibleRecipes = 10;
     private boolean canScroll = false;
 
     // Search field
     private TextFieldWidget searchField;
     private String searchText = "";
+    // Searches off the render thread once the registry is large and holds the recipes matching
+    // the current search text organized by category, see getRecipeView
+    private final RecipePanel recipePanel = new RecipePanel();
 
-    // Organized recipes by category
-    private Map<PotionCategory, List<PotionRecipe>> recipesByCategory = new HashMap<>();
+    // Which recipe items the player has, kept up to date through slot updates
+    private final InventoryAvailabilityIndex availabilityIndex = new InventoryAvailabilityIndex();
+
+    // Container the recipes are shown and brewed in, recipes themselves are only stored for normal potions
+    private PotionVariant variant = PotionVariant.NORMAL;
+
+    // Recipes to brew after the current one, filled by shift and right clicking recipes
+    private final BrewingQueue brewingQueue = new BrewingQueue();
+    // Availability revision at which the next queued recipe could not be set up, NO_REVISION if it is not waiting
+    private int queueBlockedRevision = NO_REVISION;
+    // The brew that finished before the queue got blocked left its results in the stand
+    private boolean queueClearsResults = false;
+
+    // The recipe rows as drawn last time, reused until something they show changes
+    private final PanelRenderCache panelCache = new PanelRenderCache();
 
     public BrewingStandScreenMixin(BrewingStandScreenHandler handler, PlayerInventory inventory, Text title) {
         super(handler, inventory, title);
@@ -82,11 +115,24 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
 
     @Inject(method = "init", at = @At("TAIL"))
     private void onInit(CallbackInfo ci) {
-        // Loads all of our registered recipes
-        this.allRecipes = PotionRecipeRegistry.getAllRecipes();
+        // Loads all of our registered recipes.
+        // The first time a brewing stand is opened they might still be loading, we pick them up in render.
+        PotionRecipeRegistry.load();
+        this.recipesLoading = !PotionRecipeRegistry.isReady();
+        this.snapshot = this.recipesLoading ? RegistrySnapshot.EMPTY : PotionRecipeRegistry.getSnapshot();
 
-        // Organize recipes by category
-        organizeRecipesByCat();
+        // Our recipes might have changed so the filtered view is outdated
+        this.recipePanel.reset();
+
+        // Index the player's inventory once and let the handler tell us about changes.
+        // Init also runs on resize, so make sure we are not registered twice.
+        this.handler.removeListener(this.availabilityIndex);
+        this.availabilityIndex.scan(this.handler);
+        this.handler.addListener(this.availabilityIndex);
+
+        // Same for the queue, it finds out about finished brews through the handler
+        this.handler.removeListener(this.brewingQueue);
+        this.handler.addListener(this.brewingQueue);
 
         // Creates search field
         int leftPos = (this.width - this.backgroundWidth) / 2;
@@ -111,106 +157,61 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         updateScrollState();
     }
 
-    private void organizeRecipesByCat() {
-        // Clear existing categories
-        this.recipesByCategory.clear();
-
-        // Initialize category lists
-        for (PotionCategory category : PotionCategory.values()) {
-            this.recipesByCategory.put(category, new ArrayList<>());
-        }
-
-        // Organize recipes by category
-        for (PotionRecipe recipe : this.allRecipes) {
-            PotionCategory category = recipe.getCategory();
-            List<PotionRecipe> categoryRecipes = this.recipesByCategory.get(category);
-            if (categoryRecipes != null) {
-                categoryRecipes.add(recipe);
-            }
-        }
-    }
-
     private void updateScrollState() {
-        // Calculate total height needed for all recipes with category headers
-        int totalHeight = calculateTotalContentHeight();
-
-        // Calculate visible height
-        int visibleHeight = visibleRecipes * 20;
+        float maxScrollOffset = getMaxScrollOffset();
+        this.canScroll = maxScrollOffset > 0;
 
-        // Can scroll if total height exceeds visible height
-        this.canScroll = totalHeight > visibleHeight;
+        // The offset only moves when the content got too short for it
+        this.scrollOffset = Math.max(0.0F, Math.min(this.scrollOffset, maxScrollOffset));
+    }
 
-        // Ensure scroll offset is within valid range
-        if (!this.canScroll) {
-            this.scrollOffset = 0.0F;
-        } else {
-            // Calculate maximum valid scroll offset
-            float maxScrollOffset = (float)(totalHeight - visibleHeight) / totalHeight;
-            this.scrollOffset = Math.min(this.scrollOffset, maxScrollOffset);
-        }
+    // How far the list scrolls, counted in rows like scrollOffset.
+    // Compares the height of every row and header with the visible part of the panel.
+    @Unique
+    private float getMaxScrollOffset() {
+        return (float) getRecipeView().getLayout().getMaxScroll(RECIPE_LIST_HEIGHT) / RecipeLayout.ROW_HEIGHT;
     }
 
     private int calculateTotalContentHeight() {
-        int height = 0;
-
-        for (PotionCategory category : PotionCategory.values()) {
-            List<PotionRecipe> recipes = getFilteredRecipesForCategory(category);
-            if (!recipes.isEmpty()) {
-                // Category header
-                height += 20;
-                // Recipes
-                height += recipes.size() * 20;
-                // Space after category
-                height += 10;
-            }
-        }
-
-        return height;
+        return getRecipeView().getContentHeight();
     }
 
-    private List<PotionRecipe> getFilteredRecipesForCategory(PotionCategory category) {
-        List<PotionRecipe> result = new ArrayList<>();
-        List<PotionRecipe> categoryRecipes = this.recipesByCategory.get(category);
-
-        if (categoryRecipes == null || categoryRecipes.isEmpty()) {
-            return result;
-        }
-
-        // If the search field is empty we just return all of our potion recipe's
-        if (this.searchText.isEmpty()) {
-            return categoryRecipes;
-        }
-
-        // If the search field is NOT empty we handle the text to filter the recipe's.
-        // Quick note: We can filter based of the result, ingredient or the base item name.
-        // For example we can check for a fire res potion or magma cream (which is used to brew that potion).
-        String searchLower = this.searchText.toLowerCase();
-        for (PotionRecipe recipe : categoryRecipes) {
-            String resultName = recipe.getResult().getName().getString().toLowerCase();
-            String ingredientName = recipe.getIngredient().getName().getString().toLowerCase();
-            String baseName = recipe.getBasePotion().getName().getString().toLowerCase();
-
-            if (resultName.contains(searchLower) ||
-                    ingredientName.contains(searchLower) ||
-                    baseName.contains(searchLower)) {
-                result.add(recipe);
-            }
-        }
-
-        return result;
+    /**
+     * Returns the recipes matching the current search text, see {@link RecipePanel#update}.
+     * Until a new search finishes this keeps returning the previous result.
+     */
+    @Unique
+    private RecipeView getRecipeView() {
+        String query = this.recipesLoading ? "" : this.searchText;
+        return this.recipePanel.update(this.snapshot, query, this.variant);
     }
 
     @Inject(method = "render", at = @At("TAIL"))
     private void onRender(DrawContext context, int mouseX, int mouseY, float delta, CallbackInfo ci) {
+        long renderStart = PanelProfiler.start();
         int leftPos = (this.width - this.backgroundWidth) / 2;
         int topPos = (this.height - this.backgroundHeight) / 2;
 
+        // Picks up the recipes once the background loading is done, or when recipes were registered since
+        if (this.recipesLoading && PotionRecipeRegistry.isReady()) {
+            this.recipesLoading = false;
+        }
+        if (!this.recipesLoading && this.snapshot != PotionRecipeRegistry.getSnapshot()) {
+            this.snapshot = PotionRecipeRegistry.getSnapshot();
+        }
+
         // Draw guide background
         context.fill(leftPos + 176, topPos, leftPos + 176 + RECIPE_PANEL_WIDTH, topPos + this.backgroundHeight, 0x80000000);
 
         // Draw guide title
         context.drawText(this.textRenderer, "Potion Recipes", leftPos + 180, topPos - 10, 0xFFFFFF, false);
 
+        // Draw the variant toggle next to the title
+        int variantX = getVariantToggleX(leftPos);
+        boolean variantHovered = isOverVariantToggle(mouseX, mouseY, leftPos, topPos);
+        context.drawText(this.textRenderer, this.variant.getDisplayName(), variantX, topPos - 10,
+                variantHovered ? 0xFFFF55 : 0xAAAAAA, false);
+
         if (this.searchField != null) {
             this.searchField.render(context, mouseX, mouseY, delta);
 
@@ -221,33 +222,78 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
             }
         }
 
+        // Submits a search when something changed and picks up the one that finished
+        long filterStart = PanelProfiler.start();
+        RecipeView shownView = this.recipePanel.getView();
+        if (getRecipeView() != shownView) {
+            updateScrollState();
+        }
+        PanelProfiler.stop(PanelProfiler.Phase.FILTER, filterStart);
+
         // Draw guide recipes by category
         drawRecipesByCat(context, leftPos + 176, topPos + 25, mouseX, mouseY);
 
         // Draw guide scrollbar if needed.
         if (this.canScroll) {
+            long scrollbarStart = PanelProfiler.start();
             drawScrollbar(context, leftPos + 176 + RECIPE_PANEL_WIDTH - 10, topPos + 25, mouseX, mouseY);
+            PanelProfiler.stop(PanelProfiler.Phase.SCROLLBAR, scrollbarStart);
         }
 
-        // Draw guide "No results" message if needed
-        boolean hasAnyRecipes = false;
-        for (PotionCategory category : PotionCategory.values()) {
-            if (!getFilteredRecipesForCategory(category).isEmpty()) {
-                hasAnyRecipes = true;
-                break;
-            }
+        // Draw guide loading or "No results" message if needed
+        if (this.recipesLoading && PotionRecipeRegistry.hasLoadFailed()) {
+            // Reopening the brewing stand loads them again
+            context.drawText(this.textRenderer, "Failed to load recipes", leftPos + 180, topPos + 80, 0xFF5555, false);
+        } else if (this.recipesLoading) {
+            context.drawText(this.textRenderer, "Loading recipes...", leftPos + 180, topPos + 80, 0xAAAAAA, false);
+        } else if (getRecipeView().isEmpty() && !this.recipePanel.isSearching()) {
+            context.drawText(this.textRenderer, "No matching recipes", leftPos + 180, topPos + 80, 0xFFFFFF, false);
         }
 
-        if (!hasAnyRecipes) {
-            context.drawText(this.textRenderer, "No matching recipes", leftPos + 180, topPos + 80, 0xFFFFFF, false);
+        // Draw the amount of queued recipes below the panel, clicking it clears the queue
+        int overlayY = topPos + this.backgroundHeight + 5;
+        if (!this.brewingQueue.isEmpty()) {
+            boolean queueHovered = isOverQueueLabel(mouseX, mouseY, leftPos, topPos);
+            context.drawText(this.textRenderer, getQueueLabel(), leftPos + 180, overlayY,
+                    queueHovered ? 0xFFFF55 : 0xFFFFFF, false);
+            overlayY += this.textRenderer.fontHeight + 3;
+        }
+
+        PanelProfiler.stop(PanelProfiler.Phase.TOTAL, renderStart);
+        PanelProfiler.endFrame();
+
+        if (PanelProfiler.isEnabled()) {
+            drawProfilerOverlay(context, leftPos + 180, overlayY);
+        }
+    }
+
+    @Unique
+    private String getQueueLabel() {
+        return "Queued: " + this.brewingQueue.size();
+    }
+
+    @Unique
+    private boolean isOverQueueLabel(double mouseX, double mouseY, int leftPos, int topPos) {
+        int y = topPos + this.backgroundHeight + 5;
+        return !this.brewingQueue.isEmpty() &&
+                mouseX >= leftPos + 180 && mouseX <= leftPos + 180 + this.textRenderer.getWidth(getQueueLabel()) &&
+                mouseY >= y - 1 && mouseY <= y + this.textRenderer.fontHeight;
+    }
+
+    /* Draws the frame times of the recipe panel below it */
+    @Unique
+    private void drawProfilerOverlay(DrawContext context, int x, int y) {
+        for (String line : PanelProfiler.getOverlayLines()) {
+            context.drawText(this.textRenderer, line, x, y, 0xFFFF55, true);
+            y += this.textRenderer.fontHeight + 1;
         }
     }
 
     @Unique
     private void drawScrollbar(DrawContext context, int x, int y, int mouseX, int mouseY) {
-        int scrollbarHeight = 140;
+        int scrollbarHeight = RECIPE_LIST_HEIGHT;
         int totalHeight = calculateTotalContentHeight();
-        int visibleHeight = 140;
+        int visibleHeight = RECIPE_LIST_HEIGHT;
 
         // Only draw scrollbar if needed
         // If all the recipes fit in the visible view we return.
@@ -262,7 +308,7 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         int maxScrollPixels = totalHeight - visibleHeight;
 
         // Calculate current scroll position as a fraction of the maximum
-        float scrollFraction = (float)(this.scrollOffset * 20) / maxScrollPixels;
+        float scrollFraction = (this.scrollOffset * RecipeLayout.ROW_HEIGHT) / maxScrollPixels;
 
         // Clamp scroll fraction to valid range
         scrollFraction = Math.max(0.0F, Math.min(1.0F, scrollFraction));
@@ -300,114 +346,129 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         int contentWidth = RECIPE_PANEL_WIDTH - 15;
 
         // Set a fixed height for the visible area
-        int visibleHeight = 140;
-
-        // Enable scissor to prevent drawing outside the visible area
-        context.enableScissor(x, y, x + contentWidth, y + visibleHeight);
+        int visibleHeight = RECIPE_LIST_HEIGHT;
 
         // Calculate the scroll offset in pixels (simple linear scrolling)
-        int scrollY = (int)(this.scrollOffset * 20);
-
-        // Start drawing from the scrolled position
-        int currentY = y - scrollY;
+        int scrollY = (int)(this.scrollOffset * RecipeLayout.ROW_HEIGHT);
+
+        RecipeLayout layout = getRecipeView().getLayout();
+
+        // Items hidden by the scissor should not show a tooltip
+        boolean mouseInPanel = mouseX >= x && mouseX <= x + contentWidth &&
+                mouseY >= y && mouseY <= y + visibleHeight;
+        ItemStack hoveredStack = ItemStack.EMPTY;
+
+        // Draw highlight if hovered, before the rows so it ends up behind the items
+        // How else are we supposed to see where we are focusing...
+        int hoveredRow = mouseInPanel ? this.recipePanel.recipeRowAt(scrollY, mouseY - y) : -1;
+        if (hoveredRow != -1) {
+            int rowY = y - scrollY + layout.getRowTop(hoveredRow);
+            context.enableScissor(x, y, x + contentWidth, y + visibleHeight);
+            context.fill(x, rowY, x + contentWidth, rowY + RecipeLayout.ROW_HEIGHT, 0x80FFFFFF);
+            context.disableScissor();
+
+            // Remember which item is hovered so we can draw its tooltip later
+            int hoveredItem = RecipeLayout.itemAt(mouseX - x, mouseY - rowY);
+            hoveredStack = RecipeLayout.getItem(layout.getRecipe(hoveredRow), this.variant, hoveredItem);
+        }
 
-        // Loops through all categories and recipes
-        for (PotionCategory category : PotionCategory.values()) {
-            List<PotionRecipe> categoryRecipes = getFilteredRecipesForCategory(category);
-            if (categoryRecipes.isEmpty()) {
-                continue;
+        // The rows only change with scrolling, searching, the inventory, the window or the language,
+        // in every other frame they are copied from the cache. Glints stand still in between, see PanelRenderCache.
+        if (PanelRenderCache.ENABLED) {
+            MinecraftClient client = MinecraftClient.getInstance();
+            PanelRenderCache.Key key = new PanelRenderCache.Key(getRecipeView(), scrollY,
+                    this.availabilityIndex.getRevision(), this.variant, x, y,
+                    client.getWindow().getScaleFactor(), client.getLanguageManager().getLanguage());
+
+            if (!this.panelCache.isValid(key)) {
+                PanelProfiler.count(PanelProfiler.Counter.PANEL_REDRAWS, 1);
+                this.panelCache.begin(context, key, x, y, contentWidth, visibleHeight);
+                // The framebuffer is the size of the panel and cuts off the rest itself, a scissor
+                // would be placed in window pixels and miss it
+                drawRecipeRows(context, x, y, contentWidth, visibleHeight, scrollY, layout, false);
+                this.panelCache.end(context);
             }
+            this.panelCache.draw(context);
+        } else {
+            drawRecipeRows(context, x, y, contentWidth, visibleHeight, scrollY, layout, true);
+        }
 
-            // Draw category header
-            context.drawText(this.textRenderer, category.getDisplayName(), x + 5, currentY + 5, 0xFFFFFF, false);
-            currentY += 20;
-
-            // Draw recipes in this category
-            for (PotionRecipe recipe : categoryRecipes) {
-                // Check if this recipe is in the visible area
-                if (currentY + 20 >= y && currentY <= y + visibleHeight) {
-                    // Check if mouse is hovering over this recipe
-                    boolean isHovered = mouseX >= x && mouseX <= x + contentWidth &&
-                            mouseY >= currentY && mouseY <= currentY + 20;
-
-                    // Draw highlight if hovered
-                    // How else are we supposed to see where we are focusing...
-                    if (isHovered) {
-                        context.fill(x, currentY, x + contentWidth, currentY + 20, 0x80FFFFFF);
-                    }
-
-                    // Calculate better spacing to use the full width
-                    int baseX = x + 5;
-                    int plusX = x + 30;
-                    int ingredientX = x + 45;
-                    int arrowX = x + 70;
-                    int resultX = x + 85;
-
-                    boolean hasBasePotion = findRequirementsPlayerInv(recipe.getBasePotion()) != -1;
-                    boolean hasIngredient = findRequirementsPlayerInv(recipe.getIngredient()) != -1;
-                    boolean hasBlazePowder = hasFuel() || findRequirementsPlayerInv(new ItemStack(Items.BLAZE_POWDER)) != -1;
-
-                    // Draw recipe items with better spacing and color based on availability
-                    drawItemAvailability(context, recipe.getBasePotion(), baseX, currentY + 2, hasBasePotion);
-                    context.drawText(this.textRenderer, "+", plusX, currentY + 6, 0xFFFFFF, false);
-                    drawItemAvailability(context, recipe.getIngredient(), ingredientX, currentY + 2, hasIngredient);
-
-                    // Draw arrow in red if missing blaze powder
-                    int arrowColor = hasBlazePowder ? 0xFFFFFF : 0xFF5555;
-                    context.drawText(this.textRenderer, "→", arrowX, currentY + 6, arrowColor, false);
-
-                    // Always draw result in normal color
-                    context.drawItem(recipe.getResult(), resultX, currentY + 2);
-                }
-
-                currentY += 20;
-            }
+        // Draw the tooltip AFTER disabling scissor to allow it to render properly
+        if (!hoveredStack.isEmpty()) {
+            long tooltipStart = PanelProfiler.start();
+            context.drawItemTooltip(this.textRenderer, hoveredStack, mouseX, mouseY);
+            PanelProfiler.stop(PanelProfiler.Phase.TOOLTIP, tooltipStart);
+        }
+    }
 
-            // Add some space after each category
-            currentY += 10;
+    /* Draws the headers and recipes in the visible area, without anything that depends on the mouse */
+    @Unique
+    private void drawRecipeRows(DrawContext context, int x, int y, int contentWidth, int visibleHeight, int scrollY,
+                                RecipeLayout layout, boolean scissor) {
+        // Enable scissor to prevent drawing outside the visible area
+        if (scissor) {
+            context.enableScissor(x, y, x + contentWidth, y + visibleHeight);
         }
 
-        context.disableScissor();
+        // Same for every recipe so we only have to look it up once
+        boolean hasBlazePowder = this.availabilityIndex.hasBlazePowder();
 
-        // Draw tooltips AFTER disabling scissor to allow them to render properly
-        currentY = y - scrollY;
+        // Only loops through the rows that are actually in the visible area
+        int endRow = this.recipePanel.endVisibleRow(scrollY, visibleHeight);
+        for (int row = this.recipePanel.firstVisibleRow(scrollY); row < endRow; row++) {
+            int currentY = y - scrollY + layout.getRowTop(row);
 
-        for (PotionCategory category : PotionCategory.values()) {
-            List<PotionRecipe> categoryRecipes = getFilteredRecipesForCategory(category);
-            if (categoryRecipes.isEmpty()) {
+            // Draw category header
+            if (layout.isHeader(row)) {
+                context.drawText(this.textRenderer, layout.getCategory(row).getDisplayName(), x + 5, currentY + 5, 0xFFFFFF, false);
                 continue;
             }
 
-            // Skip category header
-            currentY += 20;
-
-            // Draw tooltips for recipes in this category
-            for (PotionRecipe recipe : categoryRecipes) {
-                // Check if this recipe is in the visible area
-                if (currentY + 20 >= y && currentY <= y + visibleHeight) {
-                    // Calculate item positions
-                    int baseX = x + 5;
-                    int ingredientX = x + 45;
-                    int resultX = x + 85;
-
-                    // Draw tooltips for individual items if hovering over them
-                    if (mouseX >= baseX && mouseX <= baseX + 16 && mouseY >= currentY + 2 && mouseY <= currentY + 18) {
-                        context.drawItemTooltip(this.textRenderer, recipe.getBasePotion(), mouseX, mouseY);
-                    } else if (mouseX >= ingredientX && mouseX <= ingredientX + 16 && mouseY >= currentY + 2 && mouseY <= currentY + 18) {
-                        context.drawItemTooltip(this.textRenderer, recipe.getIngredient(), mouseX, mouseY);
-                    } else if (mouseX >= resultX && mouseX <= resultX + 16 && mouseY >= currentY + 2 && mouseY <= currentY + 18) {
-                        context.drawItemTooltip(this.textRenderer, recipe.getResult(), mouseX, mouseY);
-                    }
-                }
+            PotionRecipe recipe = layout.getRecipe(row);
+            PanelProfiler.count(PanelProfiler.Counter.ROWS_DRAWN, 1);
 
-                currentY += 20;
-            }
+            long availabilityStart = PanelProfiler.start();
+            boolean hasBasePotion = this.availabilityIndex.has(recipe.getPackedBaseKey(this.variant));
+            boolean hasIngredient = this.availabilityIndex.has(recipe.getPackedIngredientKey());
+            PanelProfiler.stop(PanelProfiler.Phase.AVAILABILITY, availabilityStart);
 
-            // Add some space after each category
-            currentY += 10;
+            int itemY = currentY + RecipeLayout.ITEM_Y;
+            int textY = currentY + RecipeLayout.TEXT_Y;
+            long itemsStart = PanelProfiler.start();
+
+            // Draw recipe items with better spacing and color based on availability
+            drawItemAvailability(context, recipe.getBasePotion(this.variant), x + RecipeLayout.BASE_X, itemY, hasBasePotion);
+            context.drawText(this.textRenderer, "+", x + RecipeLayout.PLUS_X, textY, 0xFFFFFF, false);
+            drawItemAvailability(context, recipe.getIngredient(), x + RecipeLayout.INGREDIENT_X, itemY, hasIngredient);
+
+            // Draw arrow in red if missing blaze powder
+            int arrowColor = hasBlazePowder ? 0xFFFFFF : 0xFF5555;
+            context.drawText(this.textRenderer, "→", x + RecipeLayout.ARROW_X, textY, arrowColor, false);
+
+            // Always draw result in normal color
+            context.drawItem(recipe.getResult(this.variant), x + RecipeLayout.RESULT_X, itemY);
+
+            PanelProfiler.stop(PanelProfiler.Phase.ITEMS, itemsStart);
+            PanelProfiler.count(PanelProfiler.Counter.ITEMS_DRAWN, 3);
+        }
+
+        if (scissor) {
+            context.disableScissor();
         }
     }
 
+    // Right aligned with the recipe panel, on the same line as the title
+    @Unique
+    private int getVariantToggleX(int leftPos) {
+        return leftPos + 176 + RECIPE_PANEL_WIDTH - 4 - this.textRenderer.getWidth(this.variant.getDisplayName());
+    }
+
+    @Unique
+    private boolean isOverVariantToggle(double mouseX, double mouseY, int leftPos, int topPos) {
+        return mouseX >= getVariantToggleX(leftPos) && mouseX <= leftPos + 176 + RECIPE_PANEL_WIDTH - 4 &&
+                mouseY >= topPos - 11 && mouseY <= topPos - 10 + this.textRenderer.fontHeight;
+    }
+
     private void drawItemAvailability(DrawContext context, ItemStack stack, int x, int y, boolean available) {
         // Draw the item normally
         context.drawItem(stack, x, y);
@@ -424,8 +485,7 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
      * @return true if blaze powder is found
      */
     private boolean hasBlazePowder() {
-        ItemStack blazePowder = new ItemStack(Items.BLAZE_POWDER);
-        return findRequirementsPlayerInv(blazePowder) != -1;
+        return this.availabilityIndex.has(InventoryAvailabilityIndex.BLAZE_POWDER);
     }
 
     @Override
@@ -450,6 +510,12 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
             return handled;
         }
 
+        // F6 toggles the frame time overlay of the recipe panel, only while not typing
+        if (keyCode == GLFW.GLFW_KEY_F6) {
+            PanelProfiler.setEnabled(!PanelProfiler.isEnabled());
+            return true;
+        }
+
         // If search field is not focused, use default behavior
         return super.keyPressed(keyCode, scanCode, modifiers);
     }
@@ -466,12 +532,28 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         int leftPos = (this.width - this.backgroundWidth) / 2;
         int topPos = (this.height - this.backgroundHeight) / 2;
 
+        // Switches between normal, splash and lingering potions
+        if (isOverVariantToggle(mouseX, mouseY, leftPos, topPos)) {
+            this.variant = this.variant.next();
+            playSound(PositionedSoundInstance.master(SoundEvents.UI_BUTTON_CLICK, 1.0F));
+            return true;
+        }
+
+        // Forgets the queued recipes
+        if (isOverQueueLabel(mouseX, mouseY, leftPos, topPos)) {
+            this.brewingQueue.clear();
+            this.queueBlockedRevision = NO_REVISION;
+            this.queueClearsResults = false;
+            playSound(PositionedSoundInstance.master(SoundEvents.UI_BUTTON_CLICK, 1.0F));
+            return true;
+        }
+
         // Check if clicked on scrollbar
         // If so we scroll to that click point immediately.
         if (this.canScroll &&
                 mouseX >= leftPos + 176 + RECIPE_PANEL_WIDTH - 10 &&
                 mouseX <= leftPos + 176 + RECIPE_PANEL_WIDTH - 4 &&
-                mouseY >= topPos + 25 && mouseY <= topPos + 25 + 140) {
+                mouseY >= topPos + 25 && mouseY <= topPos + 25 + RECIPE_LIST_HEIGHT) {
             this.isScrolling = true;
             updateScrollPos(mouseY, topPos);
             return true;
@@ -479,23 +561,34 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
 
         // Check if clicked in recipe panel area
         if (mouseX >= leftPos + 176 && mouseX <= leftPos + 176 + RECIPE_PANEL_WIDTH - 15 &&
-                mouseY >= topPos + 25 && mouseY <= topPos + 25 + 140) {
+                mouseY >= topPos + 25 && mouseY <= topPos + 25 + RECIPE_LIST_HEIGHT) {
             // Find which recipe was clicked (if any)
             PotionRecipe clickedRecipe = getRecipeAtPosition(mouseX, mouseY, leftPos, topPos);
 
-            if (clickedRecipe != null) {
-                boolean hasBasePotion = findRequirementsPlayerInv(clickedRecipe.getBasePotion()) != -1;
-                boolean hasIngredient = findRequirementsPlayerInv(clickedRecipe.getIngredient()) != -1;
-                boolean hasBlazePowder = hasFuel() ||
-                        findRequirementsPlayerInv(new ItemStack(Items.BLAZE_POWDER)) != -1;
-
+            if (clickedRecipe != null && button == 1) {
+                // Right click queues every brew needed to get this potion from what the player has
+                if (enqueueChain(clickedRecipe)) {
+                    playSound(PositionedSoundInstance.master(SoundEvents.UI_BUTTON_CLICK, 1.0F));
+                    startQueuedIfIdle();
+                } else {
+                    playSound(PositionedSoundInstance.master(SoundEvents.ENTITY_VILLAGER_NO, 1.0F));
+                }
+                return true;
+            } else if (clickedRecipe != null && hasShiftDown()) {
+                // Shift click queues the recipe behind the ones already waiting.
+                // Its base potion might be the result of a queued recipe, so no availability check here.
+                this.brewingQueue.enqueue(clickedRecipe, this.variant);
+                playSound(PositionedSoundInstance.master(SoundEvents.UI_BUTTON_CLICK, 1.0F));
+                startQueuedIfIdle();
+                return true;
+            } else if (clickedRecipe != null) {
                 // Check if the player has all of the required items
-                if (hasBasePotion && hasIngredient && hasBlazePowder) {
+                if (this.availabilityIndex.canBrew(clickedRecipe, this.variant)) {
                     // Play a click sound when they do
                     playSound(PositionedSoundInstance.master(SoundEvents.UI_BUTTON_CLICK, 1.0F));
 
                     // Try to set up the brewing stand with this recipe
-                    setupBrewingStand(clickedRecipe);
+                    setupBrewingStand(clickedRecipe, this.variant, false);
                     return true;
                 } else {
                     // Player lacks items so we play the sound of depression.
@@ -514,39 +607,16 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         int y = topPos + 25;
         int contentWidth = RECIPE_PANEL_WIDTH - 15;
 
-        // Calculate the scroll offset in pixels
-        int scrollY = (int)(this.scrollOffset * 20);
-
-        // Start from the scrolled position
-        int currentY = y - scrollY;
-
-        // Check each category and its recipes
-        for (PotionCategory category : PotionCategory.values()) {
-            List<PotionRecipe> categoryRecipes = getFilteredRecipesForCategory(category);
-            if (categoryRecipes.isEmpty()) {
-                continue;
-            }
-
-            // Skip category header if not clicked
-            currentY += 20;
-
-            // Check recipes in this category
-            for (PotionRecipe recipe : categoryRecipes) {
-                // Check if mouse is over this recipe
-                if (mouseY >= currentY && mouseY <= currentY + 20 &&
-                        mouseX >= x && mouseX <= x + contentWidth) {
-                    return recipe;
-                }
-
-                currentY += 20;
-            }
-
-            // Skip space after category
-            // You know, to keep it clean.
-            currentY += 10;
+        if (mouseX < x || mouseX > x + contentWidth) {
+            return null;
         }
 
-        return null;
+        // Calculate the scroll offset in pixels
+        int scrollY = (int)(this.scrollOffset * RecipeLayout.ROW_HEIGHT);
+
+        // Find the row under the mouse in the current view, headers and spacing are not clickable
+        getRecipeView();
+        return this.recipePanel.recipeAt(scrollY, (int)Math.floor(mouseY) - y);
     }
 
     @Override
@@ -559,9 +629,9 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
     }
 
     private void updateScrollPos(double mouseY, int topPos) {
-        int scrollbarHeight = 140;
+        int scrollbarHeight = RECIPE_LIST_HEIGHT;
         int totalHeight = calculateTotalContentHeight();
-        int visibleHeight = 140;
+        int visibleHeight = RECIPE_LIST_HEIGHT;
 
         if (totalHeight <= visibleHeight) {
             this.scrollOffset = 0;
@@ -581,11 +651,8 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         float scrollFraction = relativeY / usableScrollbarHeight;
         scrollFraction = Math.max(0.0F, Math.min(1.0F, scrollFraction));
 
-        // Calculate maximum scroll in items
-        int maxScrollItems = (totalHeight - visibleHeight) / 20;
-
-        // Set scroll offset in items
-        this.scrollOffset = Math.round(scrollFraction * maxScrollItems);
+        // Set scroll offset in rows, the same range updateScrollState clamps to
+        this.scrollOffset = scrollFraction * getMaxScrollOffset();
     }
 
     @Override
@@ -605,15 +672,10 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         int topPos = (this.height - this.backgroundHeight) / 2;
 
         if (mouseX >= leftPos + 176 && mouseX <= leftPos + 176 + RECIPE_PANEL_WIDTH &&
-                mouseY >= topPos + 25 && mouseY <= topPos + 25 + 140) {
-
-            // Calculate total content height
-            int totalHeight = calculateTotalContentHeight();
-            int visibleHeight = 140;
-
-            if (totalHeight > visibleHeight) {
-                int maxScroll = (totalHeight - visibleHeight) / 20;
+                mouseY >= topPos + 25 && mouseY <= topPos + 25 + RECIPE_LIST_HEIGHT) {
 
+            float maxScroll = getMaxScrollOffset();
+            if (maxScroll > 0) {
                 this.scrollOffset = Math.max(0, Math.min(maxScroll, this.scrollOffset - (int)verticalAmount));
                 return true;
             }
@@ -629,15 +691,10 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         int topPos = (this.height - this.backgroundHeight) / 2;
 
         if (mouseX >= leftPos + 176 && mouseX <= leftPos + 176 + RECIPE_PANEL_WIDTH &&
-                mouseY >= topPos + 25 && mouseY <= topPos + 25 + 140) {
-
-            // Calculate total content height
-            int totalHeight = calculateTotalContentHeight();
-            int visibleHeight = 140;
-
-            if (totalHeight > visibleHeight) {
-                int maxScroll = (totalHeight - visibleHeight) / 20;
+                mouseY >= topPos + 25 && mouseY <= topPos + 25 + RECIPE_LIST_HEIGHT) {
 
+            float maxScroll = getMaxScrollOffset();
+            if (maxScroll > 0) {
                 this.scrollOffset = Math.max(0, Math.min(maxScroll, this.scrollOffset - (int)amount));
                 return true;
             }
@@ -657,101 +714,150 @@ public abstract class BrewingStandScreenMixin extends HandledScreen<BrewingStand
         client.getSoundManager().play(instance);
     }
 
-    // Sets up the brewing stand with the recipe
-    // So moving all of the ingredients from the player's inv to the stand
-    private void setupBrewingStand(PotionRecipe recipe) {
-        // Get the slots from the brewing stand
-        BrewingStandScreenHandler handler = this.handler;
-
-        // Ingredient slot is at index 3
-        Slot ingredientSlot = handler.slots.get(3);
-
-        // Potion slots are at indices 0, 1, 2
-        Slot[] potionSlots = new Slot[] {
-                handler.slots.get(0),
-                handler.slots.get(1),
-                handler.slots.get(2)
-        };
-
-        ItemStack ingredientStack = recipe.getIngredient();
-        int ingredientSlotId = findRequirementsPlayerInv(ingredientStack);
-
-        if (ingredientSlotId != -1) {
-            // Move the ingredient to the ingredient slot
-            this.onMouseClick(ingredientSlot, 0, 0, SlotActionType.PICKUP);
-            this.onMouseClick(handler.slots.get(ingredientSlotId), 0, 0, SlotActionType.PICKUP);
-            this.onMouseClick(ingredientSlot, 0, 0, SlotActionType.PICKUP);
-        }
-
-        ItemStack basePotionStack = recipe.getBasePotion();
-        int basePotionSlotId = findRequirementsPlayerInv(basePotionStack);
-
-        if (basePotionSlotId != -1) {
-            // Find an empty potion slot in the brewing stand
-            for (Slot potionSlot : potionSlots) {
-                if (!potionSlot.hasStack()) {
-                    // Move the base potion to this potion slot.
-                    // Only if the player has it in their inventory.
-                    this.onMouseClick(handler.slots.get(basePotionSlotId), 0, 0, SlotActionType.PICKUP);
-                    this.onMouseClick(potionSlot, 0, 0, SlotActionType.PICKUP);
-                    break;
-                }
+    /**
+     * Queues the shortest chain of brews that ends with the result of the recipe.
+     * Starts from whichever potion in the player's inventory needs the fewest brews.
+     * Nothing is queued when the player already has the result.
+     * @return false if the player has no potion the result can be brewed from
+     */
+    @Unique
+    private boolean enqueueChain(PotionRecipe recipe) {
+        // The planner only knows normal potions, the variant is applied again when brewing.
+        // Potions in another container cannot be brewed into this variant, so they are no source.
+        Item container = this.variant.getContainer();
+        List<StackKey> sources = new ArrayList<>();
+        LongIterator keys = this.availabilityIndex.getAvailableKeys().iterator();
+        while (keys.hasNext()) {
+            long key = keys.nextLong();
+            Item item = StackInterner.itemOf(key);
+            if (StackKey.isPotion(item) && item != container) {
+                continue;
             }
+            sources.add(StackKey.unpack(this.variant.normalize(key)));
         }
 
-        // Adds blaze powder from the players inventory if needed.
-        // And only if the player has fuel in their inventory.
-        if (!hasFuel()) {
-            int blazePowderSlotId = findRequirementsPlayerInv(new ItemStack(Items.BLAZE_POWDER));
-            if (blazePowderSlotId != -1) {
-                Slot fuelSlot = handler.slots.get(4);
-                this.onMouseClick(handler.slots.get(blazePowderSlotId), 0, 0, SlotActionType.PICKUP);
-                this.onMouseClick(fuelSlot, 0, 0, SlotActionType.PICKUP);
-                this.onMouseClick(handler.slots.get(blazePowderSlotId), 0, 0, SlotActionType.PICKUP);
-            }
+        BrewingPlan plan = BrewingPlanner.planFrom(sources, recipe.getResultKey());
+        if (plan == null) {
+            return false;
         }
+
+        this.brewingQueue.enqueue(plan, this.variant);
+        return true;
     }
 
-    /**
-     * Simply checks if the brewing stand has blaze powder
-     * in the fuel slot which is located at slot index 4 according
-     * to {@link BrewingStandScreenHandler}.
-     */
+    // Sets up the next queued recipe right away if the stand has nothing to do
     @Unique
-    private boolean hasFuel() {
-        Slot fuelSlot = this.handler.slots.get(4);
-        return fuelSlot.hasStack() && fuelSlot.getStack().getItem() == Items.BLAZE_POWDER;
+    private void startQueuedIfIdle() {
+        if (this.brewingQueue.isIdle()) {
+            startNextQueued(false);
+        }
     }
 
-    /* Simply loops through players slots and checks for the required items to brew that potion */
+    // Only takes the next recipe out of the queue once everything it needs is there.
+    // Until then it stays queued and handledScreenTick tries again whenever the inventory changes.
     @Unique
-    private int findRequirementsPlayerInv(ItemStack targetStack) {
-        // Player inventory slots start at index 5 in the brewing stand screen handler
-        for (int i = 5; i < this.handler.slots.size(); i++) {
-            Slot slot = this.handler.slots.get(i);
-            if (slot.hasStack()) {
-                ItemStack stack = slot.getStack();
-
-                // For potions, we need to check both the item and the potion type
-                // This is to prevent adding the wrong potion type.
-                // Because surprise surprise... this does matter much.
-                if (targetStack.getItem() == Items.POTION ||
-                        targetStack.getItem() == Items.SPLASH_POTION ||
-                        targetStack.getItem() == Items.LINGERING_POTION) {
-
-                    // Check if both are the same type of potion
-                    if (stack.getItem() == targetStack.getItem() &&
-                            PotionUtil.getPotion(stack) == PotionUtil.getPotion(targetStack)) {
-                        return i;
-                    }
-                }
-                // For non-potion items we just check normally.
-                else if (ItemStack.areItemsEqual(stack, targetStack)) {
-                    return i;
-                }
-            }
+    private void startNextQueued(boolean clearResults) {
+        clearResults |= this.queueClearsResults;
+        BrewingQueue.Entry next = this.brewingQueue.peek();
+        if (next == null) {
+            this.queueBlockedRevision = NO_REVISION;
+            this.queueClearsResults = false;
+            return;
         }
-        return -1; // Not found
+
+        if (!canStartQueued(next)) {
+            this.queueBlockedRevision = this.availabilityIndex.getRevision();
+            this.queueClearsResults = clearResults;
+            return;
+        }
+
+        this.queueBlockedRevision = NO_REVISION;
+        this.queueClearsResults = false;
+        this.brewingQueue.next();
+        setupBrewingStand(next.recipe(), next.variant(), clearResults);
+    }
+
+    // Like InventoryAvailabilityIndex#canBrew, but potions and ingredients already in the stand count too.
+    // In a chain the base potions are the results of the previous step and never leave the stand.
+    @Unique
+    private boolean canStartQueued(BrewingQueue.Entry entry) {
+        long base = entry.recipe().getPackedBaseKey(entry.variant());
+        long ingredient = entry.recipe().getPackedIngredientKey();
+
+        boolean hasBase = this.availabilityIndex.has(base);
+        for (int slot = 0; slot < BrewingTransactionPlanner.POTION_SLOT_COUNT && !hasBase; slot++) {
+            hasBase = StackInterner.pack(this.handler.getSlot(slot).getStack()) == base;
+        }
+
+        boolean hasIngredient = this.availabilityIndex.has(ingredient)
+                || StackInterner.pack(this.handler.getSlot(InventoryAvailabilityIndex.INGREDIENT_SLOT).getStack()) == ingredient;
+
+        return hasBase && hasIngredient && this.availabilityIndex.hasBlazePowder();
+    }
+
+    // Sets up the brewing stand with the recipe
+    // So moving all of the ingredients from the player's inv to the stand
+    private void setupBrewingStand(PotionRecipe recipe, PotionVariant variant, boolean clearResults) {
+        BrewingSetupEvent event = new BrewingSetupEvent();
+        event.begin();
+
+        // Work out the clicks first, every click is a packet to the server
+        List<ItemStack> slots = new ArrayList<>(this.handler.slots.size());
+        for (Slot slot : this.handler.slots) {
+            slots.add(slot.getStack());
+        }
+        BrewingTransactionPlanner.Transaction transaction = BrewingTransactionPlanner.plan(
+                slots, recipe.getPackedBaseKey(variant), recipe.getPackedIngredientKey(), clearResults);
+
+        for (BrewingTransactionPlanner.Click click : transaction.clicks()) {
+            this.onMouseClick(this.handler.slots.get(click.slotId()), click.slotId(), click.button(), click.action());
+        }
+
+        // Translating the name is not free, only do it when someone reads it
+        if (BrewingGuide.LOGGER.isDebugEnabled()) {
+            BrewingGuide.LOGGER.debug("Set up {} with {} clicks, filled {} potion slots",
+                    recipe.getResult(variant).getName().getString(), transaction.size(), transaction.potionsPlaced());
+        }
+
+        if (event.shouldCommit()) {
+            event.recipe = recipe.getResult(variant).getName().getString();
+            event.clickCount = transaction.size();
+            event.potionCount = transaction.potionsPlaced();
+            event.commit();
+        }
+    }
+
+    // Runs every tick while the screen is open.
+    // Lets the handler compare its slots and notify our availability index and queue about changes.
+    @Override
+    protected void handledScreenTick() {
+        super.handledScreenTick();
+        this.handler.sendContentUpdates();
+
+        // The previous brew is done, move its potions out and set up the next one
+        if (this.brewingQueue.pollFinished()) {
+            startNextQueued(true);
+        } else if (this.brewingQueue.tick()) {
+            // The stand never started the last recipe, it is queued again or was dropped
+            startNextQueued(false);
+        } else if (this.queueBlockedRevision != NO_REVISION
+                && this.queueBlockedRevision != this.availabilityIndex.getRevision()
+                && this.brewingQueue.isIdle()) {
+            startNextQueued(false);
+        }
+    }
+
+    @Override
+    public void removed() {
+        if (PanelProfiler.isEnabled()) {
+            PanelProfiler.dump();
+        }
+
+        this.handler.removeListener(this.availabilityIndex);
+        this.handler.removeListener(this.brewingQueue);
+        this.panelCache.close();
+        this.recipePanel.close();
+        super.removed();
     }
 
     @Override
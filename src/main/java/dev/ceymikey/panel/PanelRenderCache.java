@@ -0,0 +1,198 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.panel;
+
+import com.mojang.blaze3d.platform.GlStateManager;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.systems.VertexSorter;
+import dev.ceymikey.potion.PotionVariant;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.SimpleFramebuffer;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.BufferRenderer;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.Tessellator;
+import net.minecraft.client.render.VertexFormat;
+import net.minecraft.client.render.VertexFormats;
+import org.joml.Matrix4f;
+
+/**
+ * Keeps the rendered recipe rows in an offscreen framebuffer, so they are only drawn again when something changed.
+ * <p>
+ * The screen describes everything the rows depend on (scroll position, view, inventory, GUI scale...)
+ * as a state object. As long as {@link #isValid(Object)} says the state is the same, the rows are copied from
+ * the framebuffer with one textured quad instead of drawing every item again. Hover highlight and tooltips
+ * change with the mouse and stay live.
+ * <p>
+ * The framebuffer is only as large as the panel in window pixels. While drawing into it the projection is moved
+ * to the panel, so the rows are drawn with their usual coordinates and still land on whole pixels. It keeps a depth
+ * buffer because block items are drawn as 3D models, which is small at this size.
+ * <p>
+ * Enchantment glints are animated with the game time, the cache keeps the glint as it was when the rows were
+ * drawn, so it stands still until the next redraw. Every potion with an effect has a glint, so drawing glinting
+ * stacks live would draw most result items every frame again and leave little to cache. Players who want the
+ * moving glint can turn the cache off with {@code -Dbrewingguide.panelCache=false}, it is on otherwise.
+ * Only meant to be used from the render thread.
+ */
+public final class PanelRenderCache {
+    // Off draws the rows every frame, with animated glints
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("brewingguide.panelCache", "true"));
+
+    // GUI near and far plane as set up by the GameRenderer
+    private static final float NEAR_PLANE = 1000.0F;
+    private static final float FAR_PLANE = 21000.0F;
+
+    private SimpleFramebuffer framebuffer;
+    private Object state;
+    // Panel area in GUI coordinates as of the last begin
+    private int x;
+    private int y;
+    private int width;
+    private int height;
+
+    // Projection of the window while the cache is drawn into
+    private Matrix4f savedProjection;
+    private VertexSorter savedVertexSorting;
+
+    /* Checks if the cached rows were drawn for the same state */
+    public boolean isValid(Object state) {
+        return this.framebuffer != null && state.equals(this.state);
+    }
+
+    /**
+     * Redirects drawing inside the panel area into the cache, call {@link #end(DrawContext)} when the rows are drawn.
+     * Anything outside the area is cut off.
+     * @param context the context the rows are drawn with
+     * @param state the state the rows are drawn for
+     * @param x left edge of the panel area in GUI coordinates
+     * @param y top edge of the panel area in GUI coordinates
+     * @param width width of the panel area in GUI coordinates
+     * @param height height of the panel area in GUI coordinates
+     */
+    public void begin(DrawContext context, Object state, int x, int y, int width, int height) {
+        // Everything drawn so far belongs to the window, not to the cache
+        context.draw();
+
+        double scale = MinecraftClient.getInstance().getWindow().getScaleFactor();
+        int textureWidth = Math.max(1, (int) Math.ceil(width * scale));
+        int textureHeight = Math.max(1, (int) Math.ceil(height * scale));
+        if (this.framebuffer == null) {
+            this.framebuffer = new SimpleFramebuffer(textureWidth, textureHeight, true, MinecraftClient.IS_SYSTEM_MAC);
+            this.framebuffer.setClearColor(0.0F, 0.0F, 0.0F, 0.0F);
+        } else if (this.framebuffer.textureWidth != textureWidth || this.framebuffer.textureHeight != textureHeight) {
+            this.framebuffer.resize(textureWidth, textureHeight, MinecraftClient.IS_SYSTEM_MAC);
+        }
+
+        this.framebuffer.clear(MinecraftClient.IS_SYSTEM_MAC);
+        this.framebuffer.beginWrite(true);
+
+        // The texture can be a fraction of a GUI pixel larger than the panel, the projection covers it whole
+        // so one GUI pixel stays scale texture pixels wide
+        this.savedProjection = new Matrix4f(RenderSystem.getProjectionMatrix());
+        this.savedVertexSorting = RenderSystem.getVertexSorting();
+        Matrix4f projection = new Matrix4f().setOrtho(x, (float) (x + textureWidth / scale),
+                (float) (y + textureHeight / scale), y, NEAR_PLANE, FAR_PLANE);
+        RenderSystem.setProjectionMatrix(projection, VertexSorter.BY_Z);
+
+        this.state = state;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /* Sends what was drawn into the cache and switches back to the window */
+    public void end(DrawContext context) {
+        context.draw();
+        RenderSystem.setProjectionMatrix(this.savedProjection, this.savedVertexSorting);
+        this.savedProjection = null;
+        this.savedVertexSorting = null;
+        MinecraftClient.getInstance().getFramebuffer().beginWrite(true);
+    }
+
+    /**
+     * Copies the cached panel area back to where it was drawn in the window.
+     * The rows were drawn with normal alpha blending onto a transparent background, so the colors
+     * in the cache already are multiplied with their alpha and get blended as such.
+     */
+    public void draw(DrawContext context) {
+        if (this.framebuffer == null) {
+            return;
+        }
+
+        int x = this.x;
+        int y = this.y;
+        int width = this.width;
+        int height = this.height;
+
+        double scale = MinecraftClient.getInstance().getWindow().getScaleFactor();
+        float u0 = 0.0F;
+        float u1 = (float) (width * scale / this.framebuffer.textureWidth);
+        // Textures start at the bottom, the screen at the top
+        float v0 = 1.0F;
+        float v1 = 1.0F - (float) (height * scale / this.framebuffer.textureHeight);
+
+        context.draw();
+        RenderSystem.setShader(GameRenderer::getPositionTexProgram);
+        RenderSystem.setShaderTexture(0, this.framebuffer.getColorAttachment());
+        RenderSystem.enableBlend();
+        RenderSystem.blendFunc(GlStateManager.SrcFactor.ONE, GlStateManager.DstFactor.ONE_MINUS_SRC_ALPHA);
+        RenderSystem.disableDepthTest();
+
+        Matrix4f matrix = context.getMatrices().peek().getPositionMatrix();
+        BufferBuilder buffer = Tessellator.getInstance().getBuffer();
+        buffer.begin(VertexFormat.DrawMode.QUADS, VertexFormats.POSITION_TEXTURE);
+        buffer.vertex(matrix, x, y, 0.0F).texture(u0, v0).next();
+        buffer.vertex(matrix, x, y + height, 0.0F).texture(u0, v1).next();
+        buffer.vertex(matrix, x + width, y + height, 0.0F).texture(u1, v1).next();
+        buffer.vertex(matrix, x + width, y, 0.0F).texture(u1, v0).next();
+        BufferRenderer.drawWithGlobalProgram(buffer.end());
+
+        RenderSystem.enableDepthTest();
+        RenderSystem.defaultBlendFunc();
+        RenderSystem.disableBlend();
+    }
+
+    /* Makes sure the rows are drawn again next frame */
+    public void invalidate() {
+        this.state = null;
+    }
+
+    /**
+     * Everything the recipe rows of the panel depend on.
+     * The view changes with the search text and registry, the revision with the inventory, the position
+     * with the window size, the scale factor with the GUI scale and the texts with the language.
+     */
+    public record Key(RecipeView view, int scrollY, int inventoryRevision, PotionVariant variant,
+                      int x, int y, double scaleFactor, String language) {
+    }
+
+    /* Frees the framebuffer, the cache can still be used afterwards */
+    public void close() {
+        if (this.framebuffer != null) {
+            this.framebuffer.delete();
+            this.framebuffer = null;
+        }
+        this.state = null;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.panel;
+
+import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.PotionVariant;
+import net.minecraft.item.ItemStack;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattened row layout of the recipe panel.
+ * <p>
+ * Every category header and recipe becomes a row with a precomputed Y offset,
+ * so the panel can jump straight to the first visible row and find the row under
+ * the mouse with a binary search instead of walking through every recipe.
+ */
+public final class RecipeLayout {
+    // Row sizes used by the recipe panel
+    public static final int HEADER_HEIGHT = 20;
+    public static final int ROW_HEIGHT = 20;
+    public static final int CATEGORY_SPACING = 10;
+
+    // Horizontal positions inside a recipe row, relative to the left of the panel
+    public static final int BASE_X = 5;
+    public static final int PLUS_X = 30;
+    public static final int INGREDIENT_X = 45;
+    public static final int ARROW_X = 70;
+    public static final int RESULT_X = 85;
+
+    // Items are drawn a little below the top of their row
+    public static final int ITEM_Y = 2;
+    public static final int TEXT_Y = 6;
+    public static final int ITEM_SIZE = 16;
+
+    // The parts of a recipe row that can be hovered
+    public static final int NO_ITEM = -1;
+    public static final int BASE_ITEM = 0;
+    public static final int INGREDIENT_ITEM = 1;
+    public static final int RESULT_ITEM = 2;
+
+    private final PotionCategory[] categories;
+    // Null for header rows
+    private final PotionRecipe[] recipes;
+    // Top of every row relative to the top of the content, sorted ascending
+    private final int[] rowTops;
+    private final int contentHeight;
+
+    private RecipeLayout(PotionCategory[] categories, PotionRecipe[] recipes, int[] rowTops, int contentHeight) {
+        this.categories = categories;
+        this.recipes = recipes;
+        this.rowTops = rowTops;
+        this.contentHeight = contentHeight;
+    }
+
+    /**
+     * Lays out the given recipes, categories without recipes are skipped.
+     * @param recipesByCategory the recipes to show in category order
+     */
+    public static RecipeLayout build(Map<PotionCategory, List<PotionRecipe>> recipesByCategory) {
+        int rowCount = 0;
+        for (List<PotionRecipe> recipes : recipesByCategory.values()) {
+            if (!recipes.isEmpty()) {
+                rowCount += 1 + recipes.size();
+            }
+        }
+
+        PotionCategory[] categories = new PotionCategory[rowCount];
+        PotionRecipe[] recipes = new PotionRecipe[rowCount];
+        int[] rowTops = new int[rowCount];
+        int row = 0;
+        int y = 0;
+
+        for (Map.Entry<PotionCategory, List<PotionRecipe>> entry : recipesByCategory.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+
+            // Category header
+            categories[row] = entry.getKey();
+            rowTops[row++] = y;
+            y += HEADER_HEIGHT;
+
+            // Recipes
+            for (PotionRecipe recipe : entry.getValue()) {
+                categories[row] = entry.getKey();
+                recipes[row] = recipe;
+                rowTops[row++] = y;
+                y += ROW_HEIGHT;
+            }
+
+            // Space after category
+            y += CATEGORY_SPACING;
+        }
+
+        return new RecipeLayout(categories, recipes, rowTops, y);
+    }
+
+    public int getRowCount() {
+        return this.rowTops.length;
+    }
+
+    public int getRowTop(int row) {
+        return this.rowTops[row];
+    }
+
+    public boolean isHeader(int row) {
+        return this.recipes[row] == null;
+    }
+
+    public PotionCategory getCategory(int row) {
+        return this.categories[row];
+    }
+
+    /* Returns the recipe of a row, or null for a category header */
+    public PotionRecipe getRecipe(int row) {
+        return this.recipes[row];
+    }
+
+    /* Total height of all headers, recipe rows and spacing */
+    public int getContentHeight() {
+        return this.contentHeight;
+    }
+
+    /* How far the content can be scrolled in pixels */
+    public int getMaxScroll(int visibleHeight) {
+        return Math.max(0, this.contentHeight - visibleHeight);
+    }
+
+    /**
+     * Finds the first row that is (partially) visible when scrolled down by the given amount.
+     * @param scrollY the scroll position in pixels
+     * @return the row index, or the row count if nothing is visible
+     */
+    public int firstVisibleRow(int scrollY) {
+        // Every row is as high as a header, so the first visible row is the last one starting
+        // at or above scrollY, unless that one already ended.
+        int row = lastRowStartingAt(scrollY);
+        if (row < 0) {
+            return 0;
+        }
+        return this.rowTops[row] + ROW_HEIGHT > scrollY ? row : row + 1;
+    }
+
+    /**
+     * Finds the row after the last one that is (partially) visible.
+     * @param scrollY the scroll position in pixels
+     * @param visibleHeight the height of the visible area
+     * @return the row index, or 0 if nothing is visible
+     */
+    public int endVisibleRow(int scrollY, int visibleHeight) {
+        return lastRowStartingAt(scrollY + visibleHeight) + 1;
+    }
+
+    /**
+     * Finds the row at the given Y position.
+     * @param y the position relative to the top of the content
+     * @return the row index, or -1 if the position is in the spacing or outside the content
+     */
+    public int rowAt(int y) {
+        int row = lastRowStartingAt(y);
+        if (row < 0 || y >= this.rowTops[row] + ROW_HEIGHT) {
+            return -1;
+        }
+        return row;
+    }
+
+    /**
+     * Finds which item of a recipe row is at the given position.
+     * @param x the position relative to the left of the panel
+     * @param y the position relative to the top of the row
+     * @return {@link #BASE_ITEM}, {@link #INGREDIENT_ITEM}, {@link #RESULT_ITEM} or {@link #NO_ITEM}
+     */
+    public static int itemAt(int x, int y) {
+        if (y < ITEM_Y || y > ITEM_Y + ITEM_SIZE) {
+            return NO_ITEM;
+        }
+
+        if (x >= BASE_X && x <= BASE_X + ITEM_SIZE) {
+            return BASE_ITEM;
+        } else if (x >= INGREDIENT_X && x <= INGREDIENT_X + ITEM_SIZE) {
+            return INGREDIENT_ITEM;
+        } else if (x >= RESULT_X && x <= RESULT_X + ITEM_SIZE) {
+            return RESULT_ITEM;
+        }
+
+        return NO_ITEM;
+    }
+
+    /* Returns the stack drawn for one of the items of a recipe row */
+    public static ItemStack getItem(PotionRecipe recipe, PotionVariant variant, int item) {
+        return switch (item) {
+            case BASE_ITEM -> recipe.getBasePotion(variant);
+            case INGREDIENT_ITEM -> recipe.getIngredient();
+            case RESULT_ITEM -> recipe.getResult(variant);
+            default -> ItemStack.EMPTY;
+        };
+    }
+
+    /* Binary search for the last row whose top is at or above y */
+    private int lastRowStartingAt(int y) {
+        int low = 0;
+        int high = this.rowTops.length - 1;
+        int found = -1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (this.rowTops[mid] <= y) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return found;
+    }
+}
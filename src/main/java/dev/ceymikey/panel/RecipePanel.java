@@ -0,0 +1,131 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.panel;
+
+import dev.ceymikey.debug.PanelProfiler;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.PotionVariant;
+import dev.ceymikey.registry.RegistrySnapshot;
+import dev.ceymikey.search.AsyncSearchExecutor;
+
+/**
+ * The per-frame work of the recipe panel that does not draw anything.
+ * <p>
+ * Hands searches to the {@link AsyncSearchExecutor} and picks up their results, and finds the
+ * rows to draw and the recipe under the mouse. The brewing stand screen and the frame budget
+ * harness both go through this, so the harness measures the same code the game runs.
+ * Only meant to be used from one thread, the render thread in game.
+ */
+public final class RecipePanel implements AutoCloseable {
+    private final AsyncSearchExecutor searchExecutor = new AsyncSearchExecutor();
+
+    // What the last search was submitted for, update only submits again once one of them changes
+    private RegistrySnapshot submittedSnapshot;
+    private String submittedQuery;
+    private PotionVariant submittedVariant;
+
+    // The last finished search, replaced when a newer one finishes
+    private RecipeView view;
+
+    /**
+     * Returns the recipes matching a query.
+     * A new search is only submitted when the query, the recipes or the variant change. Until it finishes
+     * this keeps returning the previous result, only when there is none yet it searches right away.
+     * @param snapshot the registry snapshot to search in
+     * @param query the raw search text
+     * @param variant the variant the recipes are shown as
+     * @return the newest finished view, never null
+     */
+    public RecipeView update(RegistrySnapshot snapshot, String query, PotionVariant variant) {
+        // Runs several times per frame, so only hand the search over when it changed
+        if (this.view == null || snapshot != this.submittedSnapshot
+                || variant != this.submittedVariant || !query.equals(this.submittedQuery)) {
+            this.searchExecutor.submit(snapshot, query, variant, this.view == null);
+            this.submittedSnapshot = snapshot;
+            this.submittedQuery = query;
+            this.submittedVariant = variant;
+        }
+
+        RecipeView latest = this.searchExecutor.poll();
+        if (latest != null && latest != this.view) {
+            PanelProfiler.count(PanelProfiler.Counter.VIEW_REBUILDS, 1);
+            this.view = latest;
+        }
+        return this.view;
+    }
+
+    /* Returns the view last returned by update, or null before the first update */
+    public RecipeView getView() {
+        return this.view;
+    }
+
+    /* Forgets the shown view, so the next update searches right away */
+    public void reset() {
+        this.view = null;
+    }
+
+    /* Checks if a submitted search has not finished yet */
+    public boolean isSearching() {
+        return this.searchExecutor.isSearching();
+    }
+
+    /**
+     * Finds the first row to draw.
+     * @param scrollY the scroll position in pixels
+     */
+    public int firstVisibleRow(int scrollY) {
+        return this.view.getLayout().firstVisibleRow(scrollY);
+    }
+
+    /**
+     * Finds the row after the last one to draw.
+     * @param scrollY the scroll position in pixels
+     * @param visibleHeight the height of the panel
+     */
+    public int endVisibleRow(int scrollY, int visibleHeight) {
+        return this.view.getLayout().endVisibleRow(scrollY, visibleHeight);
+    }
+
+    /**
+     * Finds the recipe row at a position in the panel, headers and spacing are no recipe rows.
+     * @param scrollY the scroll position in pixels
+     * @param y the position relative to the top of the panel
+     * @return the row index, or -1 if there is no recipe there
+     */
+    public int recipeRowAt(int scrollY, int y) {
+        RecipeLayout layout = this.view.getLayout();
+        int row = layout.rowAt(y + scrollY);
+        return row == -1 || layout.isHeader(row) ? -1 : row;
+    }
+
+    /* Returns the recipe at a position in the panel, or null if there is none */
+    public PotionRecipe recipeAt(int scrollY, int y) {
+        int row = recipeRowAt(scrollY, y);
+        return row == -1 ? null : this.view.getLayout().getRecipe(row);
+    }
+
+    /* Drops the pending search, results of a running one are thrown away */
+    @Override
+    public void close() {
+        this.searchExecutor.close();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.panel;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.debug.jfr.LayoutRebuildEvent;
+import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.potion.PotionRecipe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the recipes matching one search query, grouped by category.
+ * <p>
+ * The brewing screen builds one of these per distinct query and reuses it for
+ * drawing, hit testing, scrolling and the "No matching recipes" check, so none
+ * of those have to filter the recipe list again while the query stays the same.
+ */
+public final class RecipeView {
+    private final String query;
+    private final Map<PotionCategory, List<PotionRecipe>> recipesByCategory;
+    private final int recipeCount;
+    private final RecipeLayout layout;
+
+    private RecipeView(String query, Map<PotionCategory, List<PotionRecipe>> recipesByCategory, int recipeCount) {
+        this.query = query;
+        this.recipesByCategory = recipesByCategory;
+        this.recipeCount = recipeCount;
+
+        LayoutRebuildEvent event = new LayoutRebuildEvent();
+        event.begin();
+        this.layout = RecipeLayout.build(recipesByCategory);
+
+        if (event.shouldCommit()) {
+            event.recipeCount = recipeCount;
+            event.rowCount = this.layout.getRowCount();
+            event.contentHeight = this.layout.getContentHeight();
+            event.commit();
+        }
+    }
+
+    /**
+     * Groups the recipes matching a search query by category.
+     * @param query the raw text of the search field
+     * @param matches the recipes matching that query, see {@link PotionRecipeRegistry#search(String)}
+     * @return a view holding the matching recipes per category
+     */
+    public static RecipeView build(String query, List<PotionRecipe> matches) {
+        Map<PotionCategory, List<PotionRecipe>> grouped = new EnumMap<>(PotionCategory.class);
+        for (PotionCategory category : PotionCategory.values()) {
+            grouped.put(category, new ArrayList<>());
+        }
+
+        for (PotionRecipe recipe : matches) {
+            grouped.get(recipe.getCategory()).add(recipe);
+        }
+
+        for (Map.Entry<PotionCategory, List<PotionRecipe>> entry : grouped.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        return new RecipeView(query, grouped, matches.size());
+    }
+
+    /**
+     * Groups ranked recipes by category without losing their ranking.
+     * Categories are ordered by their best ranked recipe and keep the ranking inside.
+     * @param query the raw text of the search field
+     * @param ranked the matching recipes, best match first, see {@link dev.ceymikey.search.FuzzyMatcher}
+     * @return a view holding the matching recipes per category
+     */
+    public static RecipeView buildRanked(String query, List<PotionRecipe> ranked) {
+        Map<PotionCategory, List<PotionRecipe>> grouped = new LinkedHashMap<>();
+        for (PotionRecipe recipe : ranked) {
+            grouped.computeIfAbsent(recipe.getCategory(), category -> new ArrayList<>()).add(recipe);
+        }
+
+        for (Map.Entry<PotionCategory, List<PotionRecipe>> entry : grouped.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+
+        return new RecipeView(query, grouped, ranked.size());
+    }
+
+    /* Checks if this view was built for the given query */
+    public boolean matches(String query) {
+        return this.query.equals(query);
+    }
+
+    public String getQuery() {
+        return this.query;
+    }
+
+    /* Returns the matching recipes of a category, never null */
+    public List<PotionRecipe> getRecipes(PotionCategory category) {
+        return this.recipesByCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    public int getRecipeCount() {
+        return this.recipeCount;
+    }
+
+    public boolean isEmpty() {
+        return this.recipeCount == 0;
+    }
+
+    /* Row layout of the matching recipes */
+    public RecipeLayout getLayout() {
+        return this.layout;
+    }
+
+    /* Total height of all category headers, recipe rows and spacing */
+    public int getContentHeight() {
+        return this.layout.getContentHeight();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.potion;
+
+import dev.ceymikey.search.SearchNormalizer;
+import net.minecraft.entity.effect.StatusEffectInstance;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+import net.minecraft.potion.Potion;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+import java.util.List;
+
+/**
+ * The effects of a potion, read once when a recipe is registered so searching never looks at stacks.
+ * Effects are named by their registry id with spaces instead of underscores, like "fire resistance",
+ * so they do not depend on the client language.
+ */
+public final class PotionAttributes {
+    public static final PotionAttributes NONE = new PotionAttributes(new String[0], 0, -1);
+
+    private final String[] effects;
+    // Of the longest effect in ticks, instant effects have none
+    private final int duration;
+    // Of the strongest effect, -1 without effects
+    private final int amplifier;
+
+    private PotionAttributes(String[] effects, int duration, int amplifier) {
+        this.effects = effects;
+        this.duration = duration;
+        this.amplifier = amplifier;
+    }
+
+    /**
+     * Reads the attributes of a potion.
+     * @param potion the potion, or null for items that are no potion
+     * @return the attributes, {@link #NONE} if it has no effects
+     */
+    public static PotionAttributes of(Potion potion) {
+        if (potion == null || potion.getEffects().isEmpty()) {
+            return NONE;
+        }
+
+        List<StatusEffectInstance> instances = potion.getEffects();
+        String[] effects = new String[instances.size()];
+        int duration = 0;
+        int amplifier = -1;
+
+        for (int i = 0; i < instances.size(); i++) {
+            StatusEffectInstance instance = instances.get(i);
+            Identifier id = Registries.STATUS_EFFECT.getId(instance.getEffectType());
+            effects[i] = id == null ? "" : SearchNormalizer.normalize(id.getPath().replace('_', ' '));
+            if (!instance.getEffectType().isInstant()) {
+                duration = Math.max(duration, instance.getDuration());
+            }
+            amplifier = Math.max(amplifier, instance.getAmplifier());
+        }
+
+        return new PotionAttributes(effects, duration, amplifier);
+    }
+
+    /* Checks if the name of any effect contains the normalized text */
+    public boolean hasEffect(String text) {
+        for (String effect : this.effects) {
+            if (effect.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getDuration() {
+        return this.duration;
+    }
+
+    /* Returns the duration in ticks when brewed in the container, lingering potions only last a quarter as long */
+    public int getDuration(Item container) {
+        return container == Items.LINGERING_POTION ? this.duration / 4 : this.duration;
+    }
+
+    public int getAmplifier() {
+        return this.amplifier;
+    }
+
+    /* Returns the level shown to players, 0 without effects */
+    public int getLevel() {
+        return this.amplifier + 1;
+    }
+}
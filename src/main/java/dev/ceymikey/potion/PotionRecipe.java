@@ -21,38 +21,128 @@
  */
 package dev.ceymikey.potion;
 
+import dev.ceymikey.registry.RecipeStore;
+import dev.ceymikey.search.SearchNormalizer;
 import net.minecraft.item.ItemStack;
 
+/**
+ * A single recipe of the registry.
+ * This is only a handle to a row of the {@link RecipeStore}, so it costs next to nothing to keep around.
+ * Only the store creates them, get recipes from the registry or a snapshot.
+ * The stacks it returns are shared, never modify them.
+ */
 public class PotionRecipe {
-    private final ItemStack basePotion;
-    private final ItemStack ingredient;
-    private final ItemStack result;
-    private final PotionCategory category;
-
-    public PotionRecipe(ItemStack basePotion, ItemStack ingredient, ItemStack result, PotionCategory category) {
-        this.basePotion = basePotion;
-        this.ingredient = ingredient;
-        this.result = result;
-        this.category = category;
-    }
+    private final RecipeStore store;
+    private final int row;
 
-    public PotionRecipe(ItemStack basePotion, ItemStack ingredient, ItemStack result) {
-        this(basePotion, ingredient, result, PotionCategory.BASE);
+    // Protected because the store lives in another package, see RecipeStore#getRecipe(int)
+    protected PotionRecipe(RecipeStore store, int row) {
+        this.store = store;
+        this.row = row;
     }
 
     public ItemStack getBasePotion() {
-        return basePotion;
+        return StackInterner.stack(store.getBaseKey(row));
     }
 
     public ItemStack getIngredient() {
-        return ingredient;
+        return StackInterner.stack(store.getIngredientKey(row));
     }
 
     public ItemStack getResult() {
-        return result;
+        return StackInterner.stack(store.getResultKey(row));
+    }
+
+    /**
+     * Returns the base potion in the container of the variant.
+     * Conversions like gunpowder turning a potion into a splash potion stay as they are.
+     */
+    public ItemStack getBasePotion(PotionVariant variant) {
+        return StackInterner.stack(getPackedBaseKey(variant));
+    }
+
+    /* Returns the result in the container of the variant, see {@link #getBasePotion(PotionVariant)} */
+    public ItemStack getResult(PotionVariant variant) {
+        return StackInterner.stack(getPackedResultKey(variant));
     }
 
     public PotionCategory getCategory() {
-        return category;
+        return store.getCategory(row);
+    }
+
+    // What the inventory has to contain to brew this recipe
+    public StackKey getBaseKey() {
+        return StackKey.unpack(store.getBaseKey(row));
+    }
+
+    public StackKey getIngredientKey() {
+        return StackKey.unpack(store.getIngredientKey(row));
+    }
+
+    public StackKey getResultKey() {
+        return StackKey.unpack(store.getResultKey(row));
+    }
+
+    /* Same as {@link #getBaseKey()} but packed, see {@link StackInterner} */
+    public long getPackedBaseKey() {
+        return store.getBaseKey(row);
+    }
+
+    public long getPackedIngredientKey() {
+        return store.getIngredientKey(row);
+    }
+
+    public long getPackedResultKey() {
+        return store.getResultKey(row);
+    }
+
+    public long getPackedBaseKey(PotionVariant variant) {
+        long base = store.getBaseKey(row);
+        return PotionVariant.appliesTo(base, store.getResultKey(row)) ? variant.apply(base) : base;
+    }
+
+    public long getPackedResultKey(PotionVariant variant) {
+        long result = store.getResultKey(row);
+        return PotionVariant.appliesTo(store.getBaseKey(row), result) ? variant.apply(result) : result;
+    }
+
+    /**
+     * Returns the precomputed search key of this recipe.
+     * Use {@link SearchNormalizer#contains(char[], char[])} with a normalized query to match it.
+     * It depends on the client language, when that changes the registry publishes a snapshot
+     * with new recipes and new keys, the key of this recipe stays the same.
+     */
+    public char[] getSearchKey() {
+        return store.getSearchKey(row);
+    }
+
+    /* Returns the effects of the result, read when the recipe was registered */
+    public PotionAttributes getAttributes() {
+        return store.getAttributes(row);
+    }
+
+    /* Returns the duration of the result in ticks when brewed as the variant */
+    public int getDuration(PotionVariant variant) {
+        return getAttributes().getDuration(StackInterner.itemOf(getPackedResultKey(variant)));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PotionRecipe other)) {
+            return false;
+        }
+        return getPackedBaseKey() == other.getPackedBaseKey()
+                && getPackedIngredientKey() == other.getPackedIngredientKey()
+                && getPackedResultKey() == other.getPackedResultKey();
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Long.hashCode(getPackedBaseKey());
+        hash = 31 * hash + Long.hashCode(getPackedIngredientKey());
+        return 31 * hash + Long.hashCode(getPackedResultKey());
     }
 }
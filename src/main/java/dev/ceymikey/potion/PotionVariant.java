@@ -0,0 +1,85 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.potion;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
+
+/**
+ * The container a potion recipe is brewed in.
+ * Recipes are only registered for normal potions, the same mix works for splash and lingering potions
+ * as well, so the variant is applied when showing or brewing a recipe instead of storing every recipe three times.
+ */
+public enum PotionVariant {
+    NORMAL("Normal", Items.POTION),
+    SPLASH("Splash", Items.SPLASH_POTION),
+    LINGERING("Lingering", Items.LINGERING_POTION);
+
+    private final String displayName;
+    private final Item container;
+    private final int containerId;
+
+    PotionVariant(String displayName, Item container) {
+        this.displayName = displayName;
+        this.container = container;
+        this.containerId = StackInterner.itemId(container);
+    }
+
+    public String getDisplayName() {
+        return this.displayName;
+    }
+
+    public Item getContainer() {
+        return this.container;
+    }
+
+    /* The variant after this one, wrapping around to the first */
+    public PotionVariant next() {
+        PotionVariant[] variants = values();
+        return variants[(ordinal() + 1) % variants.length];
+    }
+
+    /**
+     * Moves a packed key into this variant's container.
+     * @param key the packed key of a normal potion
+     * @return the same potion in this container, or the key itself if it is not a normal potion
+     */
+    public long apply(long key) {
+        if (this == NORMAL || StackInterner.itemIdOf(key) != NORMAL.containerId) {
+            return key;
+        }
+        return StackInterner.pack(this.containerId, StackInterner.potionIdOf(key));
+    }
+
+    /* Does the opposite of {@link #apply(long)}, moving a potion in this variant's container back into a normal bottle */
+    public long normalize(long key) {
+        if (this == NORMAL || StackInterner.itemIdOf(key) != this.containerId) {
+            return key;
+        }
+        return StackInterner.pack(NORMAL.containerId, StackInterner.potionIdOf(key));
+    }
+
+    /* Checks if both packed keys are normal potions, so the recipe works for every variant */
+    public static boolean appliesTo(long base, long result) {
+        return StackInterner.itemIdOf(base) == NORMAL.containerId && StackInterner.itemIdOf(result) == NORMAL.containerId;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.potion;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionUtil;
+
+import java.util.Arrays;
+
+/**
+ * Gives every item and potion a small id, so recipes and inventory contents can be stored as plain numbers.
+ * <p>
+ * An item and an optional potion are packed into one long key, see {@link #pack(Item, Potion)}.
+ * We hand out our own ids instead of using the raw registry ids, because those get remapped
+ * when joining a modded server. The ids only mean something while the game runs, the recipe cache
+ * stores identifiers instead.
+ * <p>
+ * The stack returned by {@link #stack(long)} is created once per key and shared, so it must never be modified.
+ * <p>
+ * Looking up ids and stacks that already exist never locks, the render thread does that for every visible
+ * recipe each frame. New ids and stacks are added under a lock and published by replacing the tables,
+ * which only happens a few thousand times while the recipes load.
+ */
+public final class StackInterner {
+    // Marks "nothing" wherever a packed key is expected
+    public static final long NONE = -1L;
+
+    // Recipe deduplication packs three ids into one long, so every id, and a potion id + 1, has to fit in 21 bits
+    public static final int MAX_IDS = (1 << 21) - 1;
+
+    private static final Object lock = new Object();
+
+    // Never modified once published, writers copy them while holding the lock
+    private static volatile Reference2IntOpenHashMap<Item> itemIds = newIdMap();
+    private static volatile Reference2IntOpenHashMap<Potion> potionIds = newIdMap();
+    // Shared stacks by item id, then by potion id + 1
+    private static volatile ItemStack[][] stacks = new ItemStack[0][];
+
+    // Written while holding the lock, replaced when they grow so readers never need the lock
+    private static volatile Item[] items = new Item[256];
+    private static volatile Potion[] potions = new Potion[64];
+
+    private StackInterner() {
+    }
+
+    /* Returns the id of the item, giving it one if it has none yet */
+    public static int itemId(Item item) {
+        int id = itemIds.getInt(item);
+        if (id != -1) {
+            return id;
+        }
+
+        synchronized (lock) {
+            id = itemIds.getInt(item);
+            if (id == -1) {
+                id = itemIds.size();
+                checkCapacity(id);
+                Item[] table = items.length > id ? items : Arrays.copyOf(items, items.length * 2);
+                table[id] = item;
+                items = table;
+                itemIds = withId(itemIds, item, id);
+            }
+            return id;
+        }
+    }
+
+    /* Returns the id of the potion, giving it one if it has none yet */
+    public static int potionId(Potion potion) {
+        int id = potionIds.getInt(potion);
+        if (id != -1) {
+            return id;
+        }
+
+        synchronized (lock) {
+            id = potionIds.getInt(potion);
+            if (id == -1) {
+                id = potionIds.size();
+                checkCapacity(id);
+                Potion[] table = potions.length > id ? potions : Arrays.copyOf(potions, potions.length * 2);
+                table[id] = potion;
+                potions = table;
+                potionIds = withId(potionIds, potion, id);
+            }
+            return id;
+        }
+    }
+
+    /* Returns the id of the item, or -1 if it has none. Never gives out a new id, for lookups */
+    public static int findItemId(Item item) {
+        return itemIds.getInt(item);
+    }
+
+    /* Returns the id of the potion, or -1 if it has none. Never gives out a new id, for lookups */
+    public static int findPotionId(Potion potion) {
+        return potionIds.getInt(potion);
+    }
+
+    public static Item item(int id) {
+        return items[id];
+    }
+
+    public static Potion potion(int id) {
+        return potions[id];
+    }
+
+    /**
+     * Packs an item and potion into one key.
+     * @param item the item
+     * @param potion the potion type, or null if the item is not a potion
+     * @return the packed key, equal for equal items and potions
+     */
+    public static long pack(Item item, Potion potion) {
+        return pack(itemId(item), potion == null ? -1 : potionId(potion));
+    }
+
+    /* Packs an item id and potion id (-1 for none) into one key */
+    public static long pack(int itemId, int potionId) {
+        return ((long) itemId << 32) | (potionId + 1);
+    }
+
+    /* Packs the item of the stack, and its potion type if it is a potion */
+    public static long pack(ItemStack stack) {
+        Item item = stack.getItem();
+        return pack(item, StackKey.isPotion(item) ? PotionUtil.getPotion(stack) : null);
+    }
+
+    /**
+     * Same as {@link #pack(ItemStack)} for lookups, never gives out new ids.
+     * @return the packed key, or {@link #NONE} if the item or its potion type has no id yet
+     */
+    public static long find(ItemStack stack) {
+        Item item = stack.getItem();
+        int itemId = findItemId(item);
+        if (itemId == -1) {
+            return NONE;
+        }
+
+        if (!StackKey.isPotion(item)) {
+            return pack(itemId, -1);
+        }
+        int potionId = findPotionId(PotionUtil.getPotion(stack));
+        return potionId == -1 ? NONE : pack(itemId, potionId);
+    }
+
+    public static int itemIdOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /* Returns the potion id of the key, or -1 if it has none */
+    public static int potionIdOf(long key) {
+        return (int) key - 1;
+    }
+
+    public static Item itemOf(long key) {
+        return item(itemIdOf(key));
+    }
+
+    /* Returns the potion of the key, or null if it has none */
+    public static Potion potionOf(long key) {
+        int id = potionIdOf(key);
+        return id == -1 ? null : potion(id);
+    }
+
+    /**
+     * Returns the shared stack for a key, mostly used for rendering.
+     * @param key the packed key
+     * @return a stack of one item with the potion set, never modify it
+     */
+    public static ItemStack stack(long key) {
+        int item = itemIdOf(key);
+        int potion = potionIdOf(key) + 1;
+
+        ItemStack stack = findStack(stacks, item, potion);
+        if (stack != null) {
+            return stack;
+        }
+
+        synchronized (lock) {
+            ItemStack[][] table = stacks;
+            stack = findStack(table, item, potion);
+            if (stack == null) {
+                Potion type = potionOf(key);
+                stack = new ItemStack(itemOf(key));
+                stack = type == null ? stack : PotionUtil.setPotion(stack, type);
+
+                // Copies both levels, a reader either sees the old tables or the complete new ones
+                ItemStack[][] grown = Arrays.copyOf(table, Math.max(table.length, item + 1));
+                ItemStack[] row = grown[item] == null ? new ItemStack[potion + 1]
+                        : Arrays.copyOf(grown[item], Math.max(grown[item].length, potion + 1));
+                row[potion] = stack;
+                grown[item] = row;
+                stacks = grown;
+            }
+            return stack;
+        }
+    }
+
+    private static ItemStack findStack(ItemStack[][] table, int item, int potion) {
+        if (item >= table.length) {
+            return null;
+        }
+        ItemStack[] row = table[item];
+        return row == null || potion >= row.length ? null : row[potion];
+    }
+
+    private static <T> Reference2IntOpenHashMap<T> newIdMap() {
+        Reference2IntOpenHashMap<T> map = new Reference2IntOpenHashMap<>();
+        map.defaultReturnValue(-1);
+        return map;
+    }
+
+    // Copy on write, so readers can use the published map without the lock
+    private static <T> Reference2IntOpenHashMap<T> withId(Reference2IntOpenHashMap<T> map, T value, int id) {
+        Reference2IntOpenHashMap<T> copy = new Reference2IntOpenHashMap<>(map);
+        copy.defaultReturnValue(-1);
+        copy.put(value, id);
+        return copy;
+    }
+
+    private static void checkCapacity(int id) {
+        if (id >= MAX_IDS) {
+            throw new IllegalStateException("More than " + MAX_IDS + " distinct items or potions");
+        }
+    }
+}
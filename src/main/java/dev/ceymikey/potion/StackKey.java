@@ -0,0 +1,62 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.potion;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.potion.Potion;
+import net.minecraft.potion.PotionUtil;
+
+/**
+ * Identifies what matters about a stack when looking for brewing ingredients.
+ * For potions that is the item and the potion type, for everything else only the item.
+ * Where many keys are stored they are packed into a long instead, see {@link StackInterner}.
+ * @param item the item of the stack
+ * @param potion the potion type, or null if the item is not a potion
+ */
+public record StackKey(Item item, Potion potion) {
+
+    public static StackKey of(Item item) {
+        return new StackKey(item, null);
+    }
+
+    public static StackKey of(ItemStack stack) {
+        Item item = stack.getItem();
+        return new StackKey(item, isPotion(item) ? PotionUtil.getPotion(stack) : null);
+    }
+
+    /* Turns a packed key back into a StackKey */
+    public static StackKey unpack(long key) {
+        return new StackKey(StackInterner.itemOf(key), StackInterner.potionOf(key));
+    }
+
+    /* Packs this key into a long, see {@link StackInterner#pack(Item, Potion)} */
+    public long pack() {
+        return StackInterner.pack(this.item, this.potion);
+    }
+
+    /* Checks if the item is one of the three potion containers */
+    public static boolean isPotion(Item item) {
+        return item == Items.POTION || item == Items.SPLASH_POTION || item == Items.LINGERING_POTION;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.registry;
+
+import dev.ceymikey.PotionRecipeRegistry;
+import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.potion.StackInterner;
+import dev.ceymikey.potion.StackKey;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.item.ItemStack;
+
+/**
+ * Collects recipes so they can be registered all at once with {@link PotionRecipeRegistry#registerAll(RecipeBatch)}.
+ * Registering a batch creates a single new registry snapshot, no matter how many recipes it holds.
+ * Only the packed keys of the stacks are kept, see {@link StackInterner}.
+ */
+public final class RecipeBatch {
+    private static final PotionCategory[] CATEGORIES = PotionCategory.values();
+
+    // Base, ingredient and result key of every recipe after each other
+    private final LongArrayList keys = new LongArrayList();
+    private final ByteArrayList categories = new ByteArrayList();
+
+    public RecipeBatch add(ItemStack basePotion, ItemStack ingredient, ItemStack result, PotionCategory category) {
+        return add(StackInterner.pack(basePotion), StackInterner.pack(ingredient), StackInterner.pack(result), category);
+    }
+
+    public RecipeBatch add(StackKey basePotion, StackKey ingredient, StackKey result, PotionCategory category) {
+        return add(basePotion.pack(), ingredient.pack(), result.pack(), category);
+    }
+
+    public RecipeBatch add(long basePotion, long ingredient, long result, PotionCategory category) {
+        this.keys.add(basePotion);
+        this.keys.add(ingredient);
+        this.keys.add(result);
+        this.categories.add((byte) category.ordinal());
+        return this;
+    }
+
+    public int size() {
+        return this.categories.size();
+    }
+
+    public boolean isEmpty() {
+        return this.categories.isEmpty();
+    }
+
+    long getBaseKey(int index) {
+        return this.keys.getLong(index * 3);
+    }
+
+    long getIngredientKey(int index) {
+        return this.keys.getLong(index * 3 + 1);
+    }
+
+    long getResultKey(int index) {
+        return this.keys.getLong(index * 3 + 2);
+    }
+
+    PotionCategory getCategory(int index) {
+        return CATEGORIES[this.categories.getByte(index)];
+    }
+}
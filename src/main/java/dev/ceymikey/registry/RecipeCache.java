@@ -0,0 +1,242 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.registry;
+
+import dev.ceymikey.BrewingGuide;
+import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.StackKey;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.minecraft.SharedConstants;
+import net.minecraft.item.Item;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.Identifier;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the registered recipes in a small binary file so the next start does not have to derive them again.
+ * <p>
+ * The file starts with a fingerprint of the game version and the installed mods. When either changes
+ * the fingerprint does not match anymore and the recipes are derived from scratch. Items and potions are
+ * stored by identifier, because raw registry ids can differ between sessions.
+ * The search index is not part of the file since it depends on the selected language.
+ */
+public final class RecipeCache {
+    private static final int MAGIC = 0x42524744; // "BRGD"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NO_POTION = -1;
+    // Magic, format version and fingerprint
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+
+    private RecipeCache() {
+    }
+
+    public static Path getPath() {
+        return FabricLoader.getInstance().getConfigDir().resolve(BrewingGuide.MOD_ID).resolve("recipes.bin");
+    }
+
+    /**
+     * Identifies the current game version and mod list.
+     * Any mod can add brewing recipes so the cache is only valid for the exact same mod list.
+     */
+    public static long fingerprint() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(FORMAT_VERSION).append(';').append(SharedConstants.getGameVersion().getName());
+
+        List<ModContainer> mods = new ArrayList<>(FabricLoader.getInstance().getAllMods());
+        mods.sort(Comparator.comparing(mod -> mod.getMetadata().getId()));
+        for (ModContainer mod : mods) {
+            builder.append(';').append(mod.getMetadata().getId())
+                    .append('@').append(mod.getMetadata().getVersion().getFriendlyString());
+        }
+
+        // FNV-1a, good enough to notice any change
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : builder.toString().getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Loads the cached recipes.
+     * @param fingerprint the expected fingerprint, see {@link #fingerprint()}
+     * @return the recipes, or null if there is no valid cache for this fingerprint
+     */
+    public static RecipeBatch load(long fingerprint) {
+        Path path = getPath();
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Check the header before mapping, an outdated file gets replaced right after this
+            // and some systems do not allow replacing a file that is still mapped.
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) != -1) {
+                // Keep reading until the header is complete
+            }
+            header.flip();
+
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC
+                    || header.getInt() != FORMAT_VERSION || header.getLong() != fingerprint) {
+                return null;
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, channel.size() - HEADER_SIZE);
+
+            Identifier[] identifiers = new Identifier[buffer.getInt()];
+            for (int i = 0; i < identifiers.length; i++) {
+                byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(bytes);
+                identifiers[i] = new Identifier(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            PotionCategory[] categories = PotionCategory.values();
+            // Skip the recipe count, the batch grows by itself
+            buffer.getInt();
+            RecipeBatch recipes = new RecipeBatch();
+            while (buffer.hasRemaining()) {
+                StackKey base = readKey(buffer, identifiers);
+                StackKey ingredient = readKey(buffer, identifiers);
+                StackKey result = readKey(buffer, identifiers);
+                int category = buffer.get();
+
+                // Something got removed from the game, safer to derive everything again
+                if (base == null || ingredient == null || result == null || category < 0 || category >= categories.length) {
+                    return null;
+                }
+
+                recipes.add(base, ingredient, result, categories[category]);
+            }
+
+            return recipes;
+        } catch (IOException | RuntimeException e) {
+            BrewingGuide.LOGGER.warn("Could not read the recipe cache, deriving recipes again", e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the recipes to the cache file.
+     * @param recipes the recipes to store
+     * @param fingerprint the fingerprint to store them under, see {@link #fingerprint()}
+     */
+    public static void save(List<PotionRecipe> recipes, long fingerprint) {
+        Map<Identifier, Integer> identifierIds = new HashMap<>();
+        List<byte[]> identifierBytes = new ArrayList<>();
+        int[] stackIds = new int[recipes.size() * 6];
+        int i = 0;
+
+        for (PotionRecipe recipe : recipes) {
+            for (StackKey key : new StackKey[] {recipe.getBaseKey(), recipe.getIngredientKey(), recipe.getResultKey()}) {
+                stackIds[i++] = intern(Registries.ITEM.getId(key.item()), identifierIds, identifierBytes);
+                stackIds[i++] = key.potion() == null
+                        ? NO_POTION
+                        : intern(Registries.POTION.getId(key.potion()), identifierIds, identifierBytes);
+            }
+        }
+
+        int size = HEADER_SIZE + 4 + 4 + recipes.size() * (6 * 4 + 1);
+        for (byte[] bytes : identifierBytes) {
+            size += 2 + bytes.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(fingerprint);
+
+        buffer.putInt(identifierBytes.size());
+        for (byte[] bytes : identifierBytes) {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+
+        buffer.putInt(recipes.size());
+        i = 0;
+        for (PotionRecipe recipe : recipes) {
+            for (int j = 0; j < 6; j++) {
+                buffer.putInt(stackIds[i++]);
+            }
+            buffer.put((byte) recipe.getCategory().ordinal());
+        }
+        buffer.flip();
+
+        Path path = getPath();
+        try {
+            Files.createDirectories(path.getParent());
+
+            // Write to a temporary file first so a crash never leaves half a cache behind
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            BrewingGuide.LOGGER.warn("Could not write the recipe cache", e);
+        }
+    }
+
+    private static StackKey readKey(ByteBuffer buffer, Identifier[] identifiers) {
+        Identifier itemId = identifiers[buffer.getInt()];
+        int potionIndex = buffer.getInt();
+
+        if (!Registries.ITEM.containsId(itemId)) {
+            return null;
+        }
+
+        Item item = Registries.ITEM.get(itemId);
+        if (potionIndex == NO_POTION) {
+            return StackKey.of(item);
+        }
+
+        Identifier potionId = identifiers[potionIndex];
+        if (!Registries.POTION.containsId(potionId)) {
+            return null;
+        }
+
+        return new StackKey(item, Registries.POTION.get(potionId));
+    }
+
+    private static int intern(Identifier identifier, Map<Identifier, Integer> ids, List<byte[]> bytes) {
+        return ids.computeIfAbsent(identifier, id -> {
+            bytes.add(id.toString().getBytes(StandardCharsets.UTF_8));
+            return bytes.size() - 1;
+        });
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.registry;
+
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.StackInterner;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Recipe ids grouped by ingredient item, base and result, so questions like "what can I make with magma cream"
+ * or "how is long poison made" never have to go through every recipe.
+ * <p>
+ * Like the snapshot it belongs to this never changes. The next snapshot copies the maps, but only the
+ * id arrays of keys that got new recipes, every other array is shared between both.
+ */
+final class RecipeLookup {
+    static final RecipeLookup EMPTY = new RecipeLookup(
+            new Long2ObjectOpenHashMap<>(), new Long2ObjectOpenHashMap<>(), new Long2ObjectOpenHashMap<>());
+
+    // Keyed by the item id of the ingredient, the others by packed keys, see StackInterner
+    private final Long2ObjectOpenHashMap<int[]> byIngredient;
+    private final Long2ObjectOpenHashMap<int[]> byBase;
+    private final Long2ObjectOpenHashMap<int[]> byResult;
+
+    private RecipeLookup(Long2ObjectOpenHashMap<int[]> byIngredient,
+                         Long2ObjectOpenHashMap<int[]> byBase,
+                         Long2ObjectOpenHashMap<int[]> byResult) {
+        this.byIngredient = byIngredient;
+        this.byBase = byBase;
+        this.byResult = byResult;
+    }
+
+    /**
+     * Creates the lookup for the next snapshot.
+     * @param added the recipes added to the end of the snapshot
+     * @param firstId the id of the first added recipe
+     * @return the lookup containing the old and the added recipes
+     */
+    RecipeLookup withAdded(List<PotionRecipe> added, int firstId) {
+        long[] ingredients = new long[added.size()];
+        long[] bases = new long[added.size()];
+        long[] results = new long[added.size()];
+        for (int i = 0; i < added.size(); i++) {
+            PotionRecipe recipe = added.get(i);
+            ingredients[i] = StackInterner.itemIdOf(recipe.getPackedIngredientKey());
+            bases[i] = recipe.getPackedBaseKey();
+            results[i] = recipe.getPackedResultKey();
+        }
+
+        return new RecipeLookup(
+                merge(this.byIngredient, ingredients, firstId),
+                merge(this.byBase, bases, firstId),
+                merge(this.byResult, results, firstId));
+    }
+
+    /* Returns the ids in ascending order, never modify them */
+    int[] getByIngredient(int itemId) {
+        return get(this.byIngredient, itemId);
+    }
+
+    int[] getByBase(long key) {
+        return get(this.byBase, key);
+    }
+
+    int[] getByResult(long key) {
+        return get(this.byResult, key);
+    }
+
+    private static int[] get(Long2ObjectOpenHashMap<int[]> map, long key) {
+        int[] ids = map.get(key);
+        return ids == null ? IntArrays.EMPTY_ARRAY : ids;
+    }
+
+    // Key i belongs to the recipe with id firstId + i
+    private static Long2ObjectOpenHashMap<int[]> merge(Long2ObjectOpenHashMap<int[]> previous, long[] keys, int firstId) {
+        // Groups the new ids first, so every array that grows is only copied once
+        Long2ObjectOpenHashMap<IntArrayList> grouped = new Long2ObjectOpenHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            IntArrayList ids = grouped.get(keys[i]);
+            if (ids == null) {
+                ids = new IntArrayList();
+                grouped.put(keys[i], ids);
+            }
+            ids.add(firstId + i);
+        }
+
+        Long2ObjectOpenHashMap<int[]> merged = new Long2ObjectOpenHashMap<>(previous);
+        for (Long2ObjectMap.Entry<IntArrayList> entry : grouped.long2ObjectEntrySet()) {
+            IntArrayList ids = entry.getValue();
+            int[] old = previous.get(entry.getLongKey());
+            int[] combined = old == null ? new int[ids.size()] : Arrays.copyOf(old, old.length + ids.size());
+            ids.getElements(0, combined, combined.length - ids.size(), ids.size());
+            merged.put(entry.getLongKey(), combined);
+        }
+        return merged;
+    }
+}
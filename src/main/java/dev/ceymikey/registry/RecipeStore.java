@@ -0,0 +1,237 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.registry;
+
+import dev.ceymikey.potion.PotionAttributes;
+import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.StackInterner;
+import dev.ceymikey.search.SearchNormalizer;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stores recipes as parallel arrays of item and potion ids instead of one object with three stacks each.
+ * <p>
+ * A {@link PotionRecipe} is only a handle pointing at a row in here, its stacks come from
+ * {@link StackInterner#stack(long)} and are shared with every other recipe using the same potion.
+ * Rows are only ever appended, so a handle keeps working for as long as it lives. Rows are
+ * deduplicated on base, base potion and ingredient, the game also only uses the first mix that fits.
+ * <p>
+ * Only the registry appends, while holding its write lock. Readers never lock: they see every row
+ * of the snapshot they got the handle from, because the snapshot is published after the append.
+ */
+public final class RecipeStore {
+    private static final PotionCategory[] CATEGORIES = PotionCategory.values();
+
+    private volatile Columns columns;
+    private int size;
+    // The size readers may rely on, set once the appended rows are published
+    private volatile int publishedSize;
+
+    // Mix keys of every row, see {@link #mixKey(int, int, int)}
+    private final LongOpenHashSet mixes;
+
+    // Attributes by potion id, most recipes share their result potion with others
+    private final Int2ObjectOpenHashMap<PotionAttributes> attributes;
+
+    public RecipeStore() {
+        this(new Columns(64), 0, new LongOpenHashSet(), new Int2ObjectOpenHashMap<>());
+    }
+
+    private RecipeStore(Columns columns, int size, LongOpenHashSet mixes, Int2ObjectOpenHashMap<PotionAttributes> attributes) {
+        this.columns = columns;
+        this.size = size;
+        this.publishedSize = size;
+        this.mixes = mixes;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Appends the recipes of the batch, skipping mixes that are already stored.
+     * @param batch the recipes to add
+     * @return handles for the rows that were actually added
+     */
+    List<PotionRecipe> append(RecipeBatch batch) {
+        Columns target = this.columns;
+        if (target.capacity() < this.size + batch.size()) {
+            target = target.grow(Math.max(target.capacity() * 2, this.size + batch.size()));
+        }
+
+        List<PotionRecipe> added = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            long base = batch.getBaseKey(i);
+            long ingredient = batch.getIngredientKey(i);
+            long result = batch.getResultKey(i);
+
+            int baseItem = StackInterner.itemIdOf(base);
+            int basePotion = StackInterner.potionIdOf(base);
+            int ingredientItem = StackInterner.itemIdOf(ingredient);
+            if (!this.mixes.add(mixKey(baseItem, basePotion, ingredientItem))) {
+                continue;
+            }
+
+            int row = this.size++;
+            target.baseItems[row] = baseItem;
+            target.basePotions[row] = basePotion;
+            target.ingredientItems[row] = ingredientItem;
+            target.ingredientPotions[row] = StackInterner.potionIdOf(ingredient);
+            target.resultItems[row] = StackInterner.itemIdOf(result);
+            target.resultPotions[row] = StackInterner.potionIdOf(result);
+            target.categories[row] = (byte) batch.getCategory(i).ordinal();
+            target.searchKeys[row] = buildSearchKey(base, ingredient, result);
+            target.attributes[row] = getPotionAttributes(result);
+            added.add(new Handle(this, row));
+        }
+
+        this.columns = target;
+        this.publishedSize = this.size;
+        return added;
+    }
+
+    /**
+     * Creates a store with the same rows, but search keys rebuilt from the currently translated item names.
+     * This store keeps its old keys, so snapshots using it never see them change. The id columns are shared,
+     * which is fine because the registry only appends to the new store from now on.
+     * @return the new store, holding the same rows in the same order
+     */
+    RecipeStore withRebuiltSearchKeys() {
+        Columns current = this.columns;
+        char[][] keys = new char[current.capacity()][];
+        for (int row = 0; row < this.size; row++) {
+            keys[row] = buildSearchKey(getBaseKey(row), getIngredientKey(row), getResultKey(row));
+        }
+        return new RecipeStore(current.withSearchKeys(keys), this.size,
+                new LongOpenHashSet(this.mixes), new Int2ObjectOpenHashMap<>(this.attributes));
+    }
+
+    /* Handles for every row, in the order they were appended */
+    List<PotionRecipe> getRecipes() {
+        List<PotionRecipe> recipes = new ArrayList<>(this.size);
+        for (int row = 0; row < this.size; row++) {
+            recipes.add(new Handle(this, row));
+        }
+        return recipes;
+    }
+
+    /**
+     * Returns a handle to a stored row, the only way to create one.
+     * @param row the row, below the amount of appended rows
+     * @return a new handle, equal to every other handle of the same recipe
+     */
+    public PotionRecipe getRecipe(int row) {
+        Objects.checkIndex(row, this.publishedSize);
+        return new Handle(this, row);
+    }
+
+    public long getBaseKey(int row) {
+        Columns data = this.columns;
+        return StackInterner.pack(data.baseItems[row], data.basePotions[row]);
+    }
+
+    public long getIngredientKey(int row) {
+        Columns data = this.columns;
+        return StackInterner.pack(data.ingredientItems[row], data.ingredientPotions[row]);
+    }
+
+    public long getResultKey(int row) {
+        Columns data = this.columns;
+        return StackInterner.pack(data.resultItems[row], data.resultPotions[row]);
+    }
+
+    public PotionCategory getCategory(int row) {
+        return CATEGORIES[this.columns.categories[row]];
+    }
+
+    public char[] getSearchKey(int row) {
+        return this.columns.searchKeys[row];
+    }
+
+    public PotionAttributes getAttributes(int row) {
+        return this.columns.attributes[row];
+    }
+
+    private PotionAttributes getPotionAttributes(long result) {
+        int potion = StackInterner.potionIdOf(result);
+        PotionAttributes attributes = this.attributes.get(potion);
+        if (attributes == null) {
+            attributes = PotionAttributes.of(StackInterner.potionOf(result));
+            this.attributes.put(potion, attributes);
+        }
+        return attributes;
+    }
+
+    // Result name first, that is what people search for most
+    private static char[] buildSearchKey(long base, long ingredient, long result) {
+        return SearchNormalizer.buildKey(
+                StackInterner.stack(result).getName().getString(),
+                StackInterner.stack(ingredient).getName().getString(),
+                StackInterner.stack(base).getName().getString());
+    }
+
+    // Identifies a mix by what goes into the brewing stand, every id fits in 21 bits
+    private static long mixKey(int baseItem, int basePotion, int ingredientItem) {
+        return ((long) baseItem << 42) | ((long) (basePotion + 1) << 21) | ingredientItem;
+    }
+
+    private static final class Handle extends PotionRecipe {
+        Handle(RecipeStore store, int row) {
+            super(store, row);
+        }
+    }
+
+    // The arrays are shared between versions of this, only rows past the published size are ever written
+    private record Columns(int[] baseItems, int[] basePotions,
+                           int[] ingredientItems, int[] ingredientPotions,
+                           int[] resultItems, int[] resultPotions,
+                           byte[] categories, char[][] searchKeys, PotionAttributes[] attributes) {
+
+        Columns(int capacity) {
+            this(new int[capacity], new int[capacity], new int[capacity], new int[capacity],
+                    new int[capacity], new int[capacity], new byte[capacity], new char[capacity][],
+                    new PotionAttributes[capacity]);
+        }
+
+        int capacity() {
+            return this.categories.length;
+        }
+
+        Columns grow(int capacity) {
+            return new Columns(
+                    Arrays.copyOf(this.baseItems, capacity), Arrays.copyOf(this.basePotions, capacity),
+                    Arrays.copyOf(this.ingredientItems, capacity), Arrays.copyOf(this.ingredientPotions, capacity),
+                    Arrays.copyOf(this.resultItems, capacity), Arrays.copyOf(this.resultPotions, capacity),
+                    Arrays.copyOf(this.categories, capacity), Arrays.copyOf(this.searchKeys, capacity),
+                    Arrays.copyOf(this.attributes, capacity));
+        }
+
+        Columns withSearchKeys(char[][] keys) {
+            return new Columns(this.baseItems, this.basePotions, this.ingredientItems, this.ingredientPotions,
+                    this.resultItems, this.resultPotions, this.categories, keys, this.attributes);
+        }
+    }
+}
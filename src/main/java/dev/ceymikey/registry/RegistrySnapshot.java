@@ -0,0 +1,252 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.registry;
+
+import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.StackInterner;
+import dev.ceymikey.search.SearchNormalizer;
+import dev.ceymikey.search.TrigramIndex;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable version of the recipe registry.
+ * <p>
+ * Registering recipes never changes a snapshot, it creates the next one and swaps it in.
+ * So anything holding on to a snapshot can read it from any thread without locking or copying,
+ * and the version tells caches when they are outdated. The id of a recipe is its position in
+ * {@link #getRecipes()} and only means something within the same snapshot.
+ * <p>
+ * Snapshots share their {@link RecipeStore} until the registry is cleared or the search keys are rebuilt,
+ * both start a new store. The store may already hold rows of a newer snapshot, but those never show up
+ * in the recipes of this one.
+ */
+public final class RegistrySnapshot {
+    public static final RegistrySnapshot EMPTY = new RegistrySnapshot(0, new RecipeStore(), List.of(), RecipeLookup.EMPTY);
+
+    private final int version;
+    private final RecipeStore store;
+    private final List<PotionRecipe> recipes;
+    private final Map<PotionCategory, List<PotionRecipe>> recipesByCategory;
+    private final RecipeLookup lookup;
+
+    // Built on the first search, the recipes of a snapshot never change so it never gets outdated
+    private volatile TrigramIndex searchIndex;
+
+    // Character masks of every search key, built on the first fuzzy search
+    private volatile long[] charMasks;
+
+    private RegistrySnapshot(int version, RecipeStore store, List<PotionRecipe> recipes, RecipeLookup lookup) {
+        this.version = version;
+        this.store = store;
+        this.recipes = recipes;
+        this.lookup = lookup;
+
+        Map<PotionCategory, List<PotionRecipe>> byCategory = new EnumMap<>(PotionCategory.class);
+        for (PotionCategory category : PotionCategory.values()) {
+            byCategory.put(category, new ArrayList<>());
+        }
+        for (PotionRecipe recipe : recipes) {
+            byCategory.get(recipe.getCategory()).add(recipe);
+        }
+        for (Map.Entry<PotionCategory, List<PotionRecipe>> entry : byCategory.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        this.recipesByCategory = byCategory;
+    }
+
+    /**
+     * Creates the next snapshot with the recipes of the batch added at the end.
+     * This appends to the shared store, so only the registry calls it while holding its write lock.
+     * @param batch the recipes to add
+     * @return the next snapshot, or this one if every recipe of the batch was already known
+     */
+    public RegistrySnapshot withAdded(RecipeBatch batch) {
+        List<PotionRecipe> added = this.store.append(batch);
+        if (added.isEmpty()) {
+            return this;
+        }
+
+        List<PotionRecipe> combined = new ArrayList<>(this.recipes.size() + added.size());
+        combined.addAll(this.recipes);
+        combined.addAll(added);
+        return new RegistrySnapshot(this.version + 1, this.store, Collections.unmodifiableList(combined),
+                this.lookup.withAdded(added, this.recipes.size()));
+    }
+
+    /**
+     * Creates the next snapshot after rebuilding the search keys from the current item names.
+     * The keys go into a copy of the store, this snapshot and its search index keep the old ones.
+     * Like {@link #withAdded(RecipeBatch)} only the registry calls this while holding its write lock.
+     */
+    public RegistrySnapshot withRebuiltSearchKeys() {
+        RecipeStore rebuilt = this.store.withRebuiltSearchKeys();
+        // Same rows in the same order, so the ids of the lookup still fit
+        return new RegistrySnapshot(this.version + 1, rebuilt,
+                Collections.unmodifiableList(rebuilt.getRecipes()), this.lookup);
+    }
+
+    /* Creates the next snapshot without any recipes, starting a new store */
+    public RegistrySnapshot cleared() {
+        return new RegistrySnapshot(this.version + 1, new RecipeStore(), List.of(), RecipeLookup.EMPTY);
+    }
+
+    public int getVersion() {
+        return this.version;
+    }
+
+    /* All recipes in registration order */
+    public List<PotionRecipe> getRecipes() {
+        return this.recipes;
+    }
+
+    public List<PotionRecipe> getRecipesByCategory(PotionCategory category) {
+        return this.recipesByCategory.getOrDefault(category, Collections.emptyList());
+    }
+
+    /* Recipes using the item as ingredient, like everything that can be made with magma cream */
+    public List<PotionRecipe> getRecipesByIngredient(Item ingredient) {
+        // An item without an id is in no recipe, and looking it up should not give it one
+        int id = StackInterner.findItemId(ingredient);
+        return id == -1 ? List.of() : getRecipes(this.lookup.getByIngredient(id));
+    }
+
+    /* Recipes brewed from the stack, see {@link #getRecipesByBase(long)} */
+    public List<PotionRecipe> getRecipesByBase(ItemStack base) {
+        long key = StackInterner.find(base);
+        return key == StackInterner.NONE ? List.of() : getRecipesByBase(key);
+    }
+
+    /**
+     * Finds the recipes brewed from a base potion.
+     * Recipes are only stored for normal potions, use {@link dev.ceymikey.potion.PotionVariant#normalize(long)}
+     * to look up splash and lingering potions.
+     * @param key the packed key of the base, see {@link StackInterner}
+     * @return the recipes in registration order
+     */
+    public List<PotionRecipe> getRecipesByBase(long key) {
+        return getRecipes(this.lookup.getByBase(key));
+    }
+
+    /* Recipes producing the stack, see {@link #getRecipesByResult(long)} */
+    public List<PotionRecipe> getRecipesByResult(ItemStack result) {
+        long key = StackInterner.find(result);
+        return key == StackInterner.NONE ? List.of() : getRecipesByResult(key);
+    }
+
+    /**
+     * Finds the recipes producing a potion, like how long poison is made.
+     * Same as {@link #getRecipesByBase(long)} this only knows normal potions.
+     * @param key the packed key of the result, see {@link StackInterner}
+     * @return the recipes in registration order
+     */
+    public List<PotionRecipe> getRecipesByResult(long key) {
+        return getRecipes(this.lookup.getByResult(key));
+    }
+
+    public int size() {
+        return this.recipes.size();
+    }
+
+    public PotionRecipe getRecipe(int id) {
+        return this.recipes.get(id);
+    }
+
+    /* Resolves recipe ids back to their recipes */
+    public List<PotionRecipe> getRecipes(int[] ids) {
+        List<PotionRecipe> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(this.recipes.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Finds every recipe whose result, ingredient or base name contains the query.
+     * @param query the raw search text
+     * @return the matching recipes in registration order
+     */
+    public List<PotionRecipe> search(String query) {
+        if (query.isEmpty()) {
+            return this.recipes;
+        }
+        return getRecipes(searchIds(SearchNormalizer.normalize(query).toCharArray()));
+    }
+
+    /**
+     * Same as {@link #search(String)} but works with recipe ids.
+     * @param needle the already normalized query
+     * @return the ids of the matching recipes in ascending order
+     */
+    public int[] searchIds(char[] needle) {
+        return getSearchIndex().search(needle);
+    }
+
+    /**
+     * Returns the ids of the recipes that might contain the needle according to the search index.
+     * Every candidate still has to be checked against its search key.
+     * @param needle the already normalized query
+     * @return the ids of the candidates in ascending order
+     */
+    public int[] searchCandidates(char[] needle) {
+        return getSearchIndex().candidates(needle);
+    }
+
+    /* Returns {@link SearchNormalizer#charMask(char[])} of every search key, indexed by recipe id */
+    public long[] getCharMasks() {
+        long[] masks = this.charMasks;
+        if (masks == null) {
+            masks = new long[this.recipes.size()];
+            for (int i = 0; i < masks.length; i++) {
+                masks[i] = SearchNormalizer.charMask(this.recipes.get(i).getSearchKey());
+            }
+            // Building it twice does no harm, both threads end up with the same masks
+            this.charMasks = masks;
+        }
+        return masks;
+    }
+
+    public TrigramIndex getSearchIndex() {
+        TrigramIndex index = this.searchIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = this.searchIndex;
+                if (index == null) {
+                    List<char[]> keys = new ArrayList<>(this.recipes.size());
+                    for (PotionRecipe recipe : this.recipes) {
+                        keys.add(recipe.getSearchKey());
+                    }
+                    index = TrigramIndex.build(keys);
+                    this.searchIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+}
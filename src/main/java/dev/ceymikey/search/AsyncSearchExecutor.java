@@ -0,0 +1,216 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.search;
+
+import dev.ceymikey.BrewingGuide;
+import dev.ceymikey.panel.RecipeView;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.PotionVariant;
+import dev.ceymikey.registry.RegistrySnapshot;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the searches of one recipe panel on a background thread, so typing never waits for them.
+ * <p>
+ * A search only starts once no other key was typed for {@link #DEBOUNCE_MILLIS}, typing "fire" quickly
+ * searches once instead of four times. Every search gets a sequence number, a search that is
+ * overtaken by a newer one stops at the next opportunity and its result is thrown away.
+ * The newest result is handed to the render thread through an atomic reference, until it arrives
+ * the panel keeps showing the previous one.
+ * <p>
+ * Registries of up to {@link #SYNC_THRESHOLD} recipes are searched right away on the calling thread,
+ * that is faster than the debounce delay alone. The calling thread never waits for the worker: while the worker
+ * holds the search session it searches with a fresh one. An empty query needs no session at all, its view of every
+ * recipe is built once per snapshot and variant.
+ */
+public final class AsyncSearchExecutor implements AutoCloseable {
+    public static final int SYNC_THRESHOLD = 512;
+    public static final long DEBOUNCE_MILLIS = 40;
+    public static final int FUZZY_RESULT_LIMIT = 50;
+
+    // Shared by every panel, only the newest search of the open screen matters anyway
+    private static final ScheduledExecutorService WORKER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BrewingGuide Search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReference<Result> published = new AtomicReference<>();
+    // Highest sequence of the searches that ended, whether they found something, got stale or failed
+    private final AtomicLong finished = new AtomicLong();
+    // Used by the worker, and by the caller for small registries, so it is locked while searching
+    private final SearchSession session = new SearchSession();
+    private final ReentrantLock sessionLock = new ReentrantLock();
+    // The view of every recipe for the last snapshot and variant an empty query was searched in
+    private volatile AllRecipes allRecipes;
+
+    // Only touched by the thread submitting
+    private Request submitted;
+    private ScheduledFuture<?> scheduled;
+
+    /**
+     * Searches the snapshot, unless the last submitted search was the same.
+     * @param snapshot the registry snapshot to search in
+     * @param query the raw search text
+     * @param variant the variant the recipes are shown as
+     * @param immediate searches on the calling thread no matter the size, for when there is nothing to show yet
+     */
+    public void submit(RegistrySnapshot snapshot, String query, PotionVariant variant, boolean immediate) {
+        Request previous = this.submitted;
+        if (previous != null && previous.snapshot == snapshot && previous.variant == variant
+                && previous.query.equals(query) && !immediate) {
+            return;
+        }
+
+        Request request = new Request(this.sequence.incrementAndGet(), snapshot, query, variant);
+        this.submitted = request;
+        if (this.scheduled != null) {
+            this.scheduled.cancel(false);
+            this.scheduled = null;
+        }
+
+        if (immediate || query.isEmpty() || snapshot.size() <= SYNC_THRESHOLD) {
+            run(request, false);
+        } else {
+            this.scheduled = WORKER.schedule(() -> run(request, true), DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /* Returns the newest finished result, or null if no search finished yet */
+    public RecipeView poll() {
+        Result result = this.published.get();
+        return result == null ? null : result.view;
+    }
+
+    /* Checks if a submitted search has not finished yet */
+    public boolean isSearching() {
+        return this.submitted != null && this.finished.get() < this.submitted.sequence;
+    }
+
+    /* Drops the pending search, results of a running one are thrown away */
+    @Override
+    public void close() {
+        this.sequence.incrementAndGet();
+        if (this.scheduled != null) {
+            this.scheduled.cancel(false);
+            this.scheduled = null;
+        }
+        this.submitted = null;
+    }
+
+    // The worker waits for the session, the calling thread searches with a fresh one instead
+    private void run(Request request, boolean onWorker) {
+        try {
+            if (isStale(request)) {
+                return;
+            }
+
+            RecipeView view;
+            if (request.query.isEmpty()) {
+                view = allRecipes(request);
+            } else if (onWorker) {
+                this.sessionLock.lock();
+                try {
+                    view = isStale(request) ? null : search(request, this.session);
+                } finally {
+                    this.sessionLock.unlock();
+                }
+            } else if (this.sessionLock.tryLock()) {
+                try {
+                    view = search(request, this.session);
+                } finally {
+                    this.sessionLock.unlock();
+                }
+            } else {
+                view = search(request, new SearchSession());
+            }
+            if (view == null) {
+                return;
+            }
+
+            // An older search finishing late never replaces a newer result
+            Result result = new Result(request.sequence, view);
+            this.published.accumulateAndGet(result, (current, next) ->
+                    current != null && current.sequence > next.sequence ? current : next);
+        } catch (RuntimeException e) {
+            BrewingGuide.LOGGER.error("Failed to search brewing recipes for '{}'", request.query, e);
+        } finally {
+            // Also a failed search is done, or the panel would keep saying it is searching
+            this.finished.accumulateAndGet(request.sequence, Math::max);
+        }
+    }
+
+    // Every recipe, built once for each snapshot and variant
+    private RecipeView allRecipes(Request request) {
+        AllRecipes cached = this.allRecipes;
+        if (cached == null || cached.snapshot != request.snapshot || cached.variant != request.variant) {
+            cached = new AllRecipes(request.snapshot, request.variant, RecipeView.build("", request.snapshot.getRecipes()));
+            this.allRecipes = cached;
+        }
+        return cached.view;
+    }
+
+    // Returns null once the request got stale
+    private RecipeView search(Request request, SearchSession session) {
+        RegistrySnapshot snapshot = request.snapshot;
+        String query = request.query;
+
+        RecipeQuery parsed = RecipeQuery.parse(query);
+        if (parsed.isStructured()) {
+            return RecipeView.build(query, parsed.filter(snapshot, request.variant));
+        }
+
+        List<PotionRecipe> matches = session.update(snapshot, query);
+        if (matches.isEmpty()) {
+            // Nothing contains the text as typed, show the closest matches instead
+            int[] ids = FuzzyMatcher.search(snapshot, query, FUZZY_RESULT_LIMIT, () -> isStale(request));
+            if (ids == null) {
+                return null;
+            }
+            // Best match first, grouping by category must not undo that
+            return RecipeView.buildRanked(query, snapshot.getRecipes(ids));
+        }
+        return RecipeView.build(query, matches);
+    }
+
+    private boolean isStale(Request request) {
+        return request.sequence != this.sequence.get();
+    }
+
+    private record Request(long sequence, RegistrySnapshot snapshot, String query, PotionVariant variant) {
+    }
+
+    private record Result(long sequence, RecipeView view) {
+    }
+
+    private record AllRecipes(RegistrySnapshot snapshot, PotionVariant variant, RecipeView view) {
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.search;
+
+import dev.ceymikey.registry.RegistrySnapshot;
+import it.unimi.dsi.fastutil.chars.Char2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongHeapPriorityQueue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds recipes that almost match a query, for when nothing contains the query as typed.
+ * <p>
+ * Every word of the query has to match on its own, in one of three ways (best first):
+ * <ul>
+ *     <li>exactly, as a substring of the search key</li>
+ *     <li>with a few typos, up to a quarter of the word's length but at most {@link #MAX_ERRORS}.
+ *     Found with the bit-parallel Bitap algorithm, which keeps one 64 bit state per allowed error</li>
+ *     <li>as a subsequence of one name starting at a word, so "spd" finds "speed"</li>
+ * </ul>
+ * Each way gives a score, the recipes with the highest total are returned. Keys missing more letters
+ * than a word allows errors are skipped using their character masks before any of this runs.
+ */
+public final class FuzzyMatcher {
+    public static final int MAX_ERRORS = 2;
+
+    // Bitap keeps the whole pattern in one long
+    private static final int MAX_BITAP_LENGTH = 63;
+
+    // Points per matched character and bonuses, an exact match always beats a typo
+    private static final int EXACT_POINTS = 4;
+    private static final int TYPO_POINTS = 3;
+    private static final int ERROR_PENALTY = 2;
+    private static final int WORD_START_BONUS = 4;
+
+    // Recipes scored between two checks if the search was cancelled
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final Token[] tokens;
+
+    private FuzzyMatcher(Token[] tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Prepares the bit masks for a query.
+     * @param query the raw search text
+     * @return the matcher, empty if the query has no words
+     */
+    public static FuzzyMatcher compile(String query) {
+        List<Token> tokens = new ArrayList<>();
+        for (String word : SearchNormalizer.normalize(query).split(" ")) {
+            if (!word.isEmpty()) {
+                tokens.add(new Token(word.toCharArray()));
+            }
+        }
+        return new FuzzyMatcher(tokens.toArray(new Token[0]));
+    }
+
+    public boolean isEmpty() {
+        return this.tokens.length == 0;
+    }
+
+    /**
+     * Scores a single search key.
+     * @param key the search key, see {@link SearchNormalizer#buildKey(String...)}
+     * @param keyMask the character mask of the key, see {@link SearchNormalizer#charMask(char[])}
+     * @return the score, higher is better, or -1 if some word does not match at all
+     */
+    public int score(char[] key, long keyMask) {
+        int total = 0;
+        for (Token token : this.tokens) {
+            // Every letter missing from the key costs at least one error
+            if (Long.bitCount(token.mask & ~keyMask) > token.maxErrors) {
+                return -1;
+            }
+
+            int score = token.score(key);
+            if (score < 0) {
+                return -1;
+            }
+            total += score;
+        }
+        return total;
+    }
+
+    /**
+     * Finds the best matching recipes of the snapshot.
+     * Only the best {@code limit} are kept while scoring, in a heap that never grows past that.
+     * @param snapshot the registry snapshot to search in
+     * @param query the raw search text
+     * @param limit the most results to return
+     * @return the recipe ids, best match first
+     */
+    public static int[] search(RegistrySnapshot snapshot, String query, int limit) {
+        return search(snapshot, query, limit, () -> false);
+    }
+
+    /**
+     * Same as {@link #search(RegistrySnapshot, String, int)}, but gives up once the search is no longer needed.
+     * @param cancelled checked every few hundred recipes
+     * @return the recipe ids, best match first, or null if the search was cancelled
+     */
+    public static int[] search(RegistrySnapshot snapshot, String query, int limit, BooleanSupplier cancelled) {
+        FuzzyMatcher matcher = compile(query);
+        if (matcher.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        long[] masks = snapshot.getCharMasks();
+        // Score in the upper half, the lower half makes earlier recipes win ties
+        LongHeapPriorityQueue best = new LongHeapPriorityQueue(limit);
+
+        for (int id = 0; id < masks.length; id++) {
+            if (id % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+
+            int score = matcher.score(snapshot.getRecipe(id).getSearchKey(), masks[id]);
+            if (score < 0) {
+                continue;
+            }
+
+            long entry = ((long) score << 32) | (Integer.MAX_VALUE - id);
+            if (best.size() < limit) {
+                best.enqueue(entry);
+            } else if (entry > best.firstLong()) {
+                best.dequeueLong();
+                best.enqueue(entry);
+            }
+        }
+
+        // The heap hands out the worst first
+        int[] ids = new int[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = Integer.MAX_VALUE - (int) best.dequeueLong();
+        }
+        return ids;
+    }
+
+    // Checks if a word of the key starts at the index
+    private static boolean isWordStart(char[] key, int index) {
+        return index == 0 || key[index - 1] == ' ' || key[index - 1] == SearchNormalizer.SEPARATOR;
+    }
+
+    // One word of the query
+    private static final class Token {
+        final char[] chars;
+        final long mask;
+        final int maxErrors;
+        // Bit j is set in the mask of a character if the word has that character at position j
+        final Char2LongOpenHashMap patternMasks = new Char2LongOpenHashMap();
+
+        Token(char[] chars) {
+            this.chars = chars;
+            this.mask = SearchNormalizer.charMask(chars);
+            this.maxErrors = chars.length <= MAX_BITAP_LENGTH ? Math.min(MAX_ERRORS, chars.length / 4) : 0;
+
+            for (int j = 0; j < Math.min(chars.length, MAX_BITAP_LENGTH); j++) {
+                this.patternMasks.addTo(chars[j], 1L << j);
+            }
+        }
+
+        int score(char[] key) {
+            int index = SearchNormalizer.indexOf(key, this.chars, 0);
+            if (index != -1) {
+                // Prefer an occurrence at the start of a word
+                int score = EXACT_POINTS * this.chars.length;
+                while (index != -1) {
+                    if (isWordStart(key, index)) {
+                        return score + WORD_START_BONUS;
+                    }
+                    index = SearchNormalizer.indexOf(key, this.chars, index + 1);
+                }
+                return score;
+            }
+
+            if (this.maxErrors > 0) {
+                int errors = errors(key);
+                if (errors <= this.maxErrors) {
+                    return TYPO_POINTS * this.chars.length - ERROR_PENALTY * errors;
+                }
+            }
+
+            return subsequenceScore(key);
+        }
+
+        /**
+         * Finds the fewest edits (insert, delete, replace) needed to find the word anywhere in the key.
+         * State d has bit j set when the first j + 1 characters of the word end at the current
+         * character of the key with at most d edits.
+         * @return the amount of edits, or more than {@link #maxErrors} if it does not fit
+         */
+        int errors(char[] key) {
+            int k = this.maxErrors;
+            long matchBit = 1L << (this.chars.length - 1);
+            long[] states = new long[k + 1];
+            for (int d = 0; d <= k; d++) {
+                // The first d characters can be deleted before anything was read
+                states[d] = (1L << d) - 1;
+            }
+
+            int best = k + 1;
+            for (char c : key) {
+                if (c == SearchNormalizer.SEPARATOR) {
+                    // Never match across two names
+                    for (int d = 0; d <= k; d++) {
+                        states[d] = (1L << d) - 1;
+                    }
+                    continue;
+                }
+
+                long charMask = this.patternMasks.get(c);
+                long previousOld = states[0];
+                long previousNew = ((states[0] << 1) | 1) & charMask;
+                states[0] = previousNew;
+
+                for (int d = 1; d <= k; d++) {
+                    long old = states[d];
+                    long next = (((old << 1) | 1) & charMask)    // match
+                            | ((previousOld << 1) | 1)            // replace
+                            | previousOld                         // insert
+                            | ((previousNew << 1) | 1);           // delete
+                    states[d] = next;
+                    previousOld = old;
+                    previousNew = next;
+                }
+
+                for (int d = 0; d < best; d++) {
+                    if ((states[d] & matchBit) != 0) {
+                        best = d;
+                        break;
+                    }
+                }
+                if (best == 0) {
+                    break;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Scores the word as a subsequence of a single name, starting at the start of a word.
+         * Consecutive characters and characters starting a word count extra.
+         * @return the best score, or -1 if it is no subsequence
+         */
+        int subsequenceScore(char[] key) {
+            int best = -1;
+            for (int start = 0; start < key.length; start++) {
+                if (key[start] != this.chars[0] || !isWordStart(key, start)) {
+                    continue;
+                }
+
+                int score = 1 + 1;
+                int previous = start;
+                int matched = 1;
+                for (int i = start + 1; i < key.length && matched < this.chars.length; i++) {
+                    if (key[i] == SearchNormalizer.SEPARATOR) {
+                        break;
+                    }
+                    if (key[i] == this.chars[matched]) {
+                        score += 1 + (i == previous + 1 ? 1 : 0) + (isWordStart(key, i) ? 1 : 0);
+                        previous = i;
+                        matched++;
+                    }
+                }
+
+                if (matched == this.chars.length) {
+                    best = Math.max(best, score);
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.search;
+
+import dev.ceymikey.potion.PotionAttributes;
+import dev.ceymikey.potion.PotionCategory;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.potion.PotionVariant;
+import dev.ceymikey.registry.RegistrySnapshot;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A search query with filters on what the result potion does.
+ * <p>
+ * The query is split on spaces and every part has to match:
+ * <ul>
+ *     <li>{@code effect:speed} the result has an effect whose id contains the text, like "fire_resistance"</li>
+ *     <li>{@code level:2}, {@code level>1} the level of the strongest effect</li>
+ *     <li>{@code dur>8:00}, {@code dur<=90} the duration of the longest effect in minutes and seconds,
+ *     or only seconds. Lingering potions last a quarter of the duration</li>
+ *     <li>{@code cat:ext} the category name starts with the text</li>
+ *     <li>anything else has to be part of a name, just like the normal search</li>
+ * </ul>
+ * Any part can be negated with a leading {@code !}. Filters that cannot be parsed are searched as text.
+ * The query is parsed once into a tree of terms that only looks at the attributes stored with each recipe.
+ */
+public final class RecipeQuery {
+    private static final Pattern FILTER = Pattern.compile("(effect|level|dur|cat)(:|=|>=|<=|>|<)(.+)");
+    private static final Pattern DURATION = Pattern.compile("(?:(\\d{1,4}):)?(\\d{1,5})");
+    private static final int TICKS_PER_SECOND = 20;
+
+    private final Term root;
+    private final boolean structured;
+    // First word that has to be part of a name, narrows the recipes down through the search index
+    private final char[] indexedNeedle;
+
+    private RecipeQuery(Term root, boolean structured, char[] indexedNeedle) {
+        this.root = root;
+        this.structured = structured;
+        this.indexedNeedle = indexedNeedle;
+    }
+
+    /**
+     * Parses a query.
+     * @param query the raw search text
+     * @return the compiled query, matching everything if it is empty
+     */
+    public static RecipeQuery parse(String query) {
+        List<Term> terms = new ArrayList<>();
+        boolean structured = false;
+        char[] indexedNeedle = null;
+
+        for (String part : SearchNormalizer.normalize(query).split(" ")) {
+            boolean negated = part.length() > 1 && part.charAt(0) == '!';
+            String body = negated ? part.substring(1) : part;
+            if (body.isEmpty()) {
+                continue;
+            }
+
+            Term term = parseFilter(body);
+            if (term == null) {
+                char[] needle = body.toCharArray();
+                term = new Text(needle);
+                if (!negated && indexedNeedle == null) {
+                    indexedNeedle = needle;
+                }
+            } else {
+                structured = true;
+            }
+
+            if (negated) {
+                term = new Not(term);
+                structured = true;
+            }
+            terms.add(term);
+        }
+
+        return new RecipeQuery(new All(terms.toArray(new Term[0])), structured, indexedNeedle);
+    }
+
+    /* Checks if the query uses filters or negation, plain words are better served by {@link SearchSession} */
+    public boolean isStructured() {
+        return this.structured;
+    }
+
+    public boolean test(PotionRecipe recipe, PotionVariant variant) {
+        return this.root.test(recipe, variant);
+    }
+
+    /**
+     * Finds every recipe of the snapshot matching this query.
+     * @param snapshot the registry snapshot to search in
+     * @param variant the variant the recipes are shown as, which changes the duration of lingering potions
+     * @return the matching recipes in registration order
+     */
+    public List<PotionRecipe> filter(RegistrySnapshot snapshot, PotionVariant variant) {
+        List<PotionRecipe> result = new ArrayList<>();
+        if (this.indexedNeedle != null) {
+            for (int id : snapshot.searchIds(this.indexedNeedle)) {
+                PotionRecipe recipe = snapshot.getRecipe(id);
+                if (test(recipe, variant)) {
+                    result.add(recipe);
+                }
+            }
+            return result;
+        }
+
+        for (PotionRecipe recipe : snapshot.getRecipes()) {
+            if (test(recipe, variant)) {
+                result.add(recipe);
+            }
+        }
+        return result;
+    }
+
+    // Returns null if the part is no filter, or its value cannot be parsed
+    private static Term parseFilter(String part) {
+        Matcher matcher = FILTER.matcher(part);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        String field = matcher.group(1);
+        Comparison comparison = Comparison.of(matcher.group(2));
+        String value = matcher.group(3);
+
+        return switch (field) {
+            case "effect" -> comparison == Comparison.EQUAL ? new Effect(value.replace('_', ' ')) : null;
+            case "level" -> parseLevel(comparison, value);
+            case "dur" -> parseDuration(comparison, value);
+            case "cat" -> comparison == Comparison.EQUAL ? parseCategory(value) : null;
+            default -> null;
+        };
+    }
+
+    private static Term parseLevel(Comparison comparison, String value) {
+        try {
+            return new Level(comparison, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Term parseDuration(Comparison comparison, String value) {
+        Matcher matcher = DURATION.matcher(value);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int minutes = matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1));
+        return new Duration(comparison, minutes * 60 + Integer.parseInt(matcher.group(2)));
+    }
+
+    private static Term parseCategory(String value) {
+        EnumSet<PotionCategory> categories = EnumSet.noneOf(PotionCategory.class);
+        for (PotionCategory category : PotionCategory.values()) {
+            if (category.name().toLowerCase(Locale.ROOT).startsWith(value)) {
+                categories.add(category);
+            }
+        }
+        return new Category(categories);
+    }
+
+    private enum Comparison {
+        EQUAL, GREATER, LESS, AT_LEAST, AT_MOST;
+
+        static Comparison of(String operator) {
+            return switch (operator) {
+                case ">" -> GREATER;
+                case "<" -> LESS;
+                case ">=" -> AT_LEAST;
+                case "<=" -> AT_MOST;
+                default -> EQUAL;
+            };
+        }
+
+        boolean test(int actual, int expected) {
+            return switch (this) {
+                case EQUAL -> actual == expected;
+                case GREATER -> actual > expected;
+                case LESS -> actual < expected;
+                case AT_LEAST -> actual >= expected;
+                case AT_MOST -> actual <= expected;
+            };
+        }
+    }
+
+    private interface Term {
+        boolean test(PotionRecipe recipe, PotionVariant variant);
+    }
+
+    private record All(Term[] terms) implements Term {
+        @Override
+        public boolean test(PotionRecipe recipe, PotionVariant variant) {
+            for (Term term : this.terms) {
+                if (!term.test(recipe, variant)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Not(Term term) implements Term {
+        @Override
+        public boolean test(PotionRecipe recipe, PotionVariant variant) {
+            return !this.term.test(recipe, variant);
+        }
+    }
+
+    private record Text(char[] needle) implements Term {
+        @Override
+        public boolean test(PotionRecipe recipe, PotionVariant variant) {
+            return SearchNormalizer.contains(recipe.getSearchKey(), this.needle);
+        }
+    }
+
+    private record Effect(String name) implements Term {
+        @Override
+        public boolean test(PotionRecipe recipe, PotionVariant variant) {
+            return recipe.getAttributes().hasEffect(this.name);
+        }
+    }
+
+    private record Level(Comparison comparison, int level) implements Term {
+        @Override
+        public boolean test(PotionRecipe recipe, PotionVariant variant) {
+            PotionAttributes attributes = recipe.getAttributes();
+            return attributes != PotionAttributes.NONE && this.comparison.test(attributes.getLevel(), this.level);
+        }
+    }
+
+    // Compared in whole seconds, that is what the tooltip shows
+    private record Duration(Comparison comparison, int seconds) implements Term {
+        @Override
+        public boolean test(PotionRecipe recipe, PotionVariant variant) {
+            int duration = recipe.getDuration(variant);
+            return duration > 0 && this.comparison.test(duration / TICKS_PER_SECOND, this.seconds);
+        }
+    }
+
+    private record Category(EnumSet<PotionCategory> categories) implements Term {
+        @Override
+        public boolean test(PotionRecipe recipe, PotionVariant variant) {
+            return this.categories.contains(recipe.getCategory());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns display names and search queries into comparable search keys.
+ * <p>
+ * Both sides go through the exact same normalization (lowercase + accents removed),
+ * so "Poción" matches "pocion" and the Turkish dotted I does not break matching.
+ */
+public final class SearchNormalizer {
+    // Separates the names inside a single search key so a query can never match across two names
+    public static final char SEPARATOR = '\0';
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private SearchNormalizer() {
+    }
+
+    /**
+     * Lowercases the text and folds accented characters to their base letter.
+     * @param text the text to normalize
+     * @return the normalized text
+     */
+    public static String normalize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+
+        // Most names are plain ASCII, no need to decompose those
+        if (isAscii(lower)) {
+            return lower.replace(SEPARATOR, ' ');
+        }
+
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").replace(SEPARATOR, ' ');
+    }
+
+    /* Normalizes the given names and joins them into one search key */
+    public static char[] buildKey(String... names) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(normalize(names[i]));
+        }
+
+        char[] key = new char[builder.length()];
+        builder.getChars(0, builder.length(), key, 0);
+        return key;
+    }
+
+    /**
+     * Checks if the needle appears anywhere in the haystack.
+     * This does not allocate anything so it is safe to call for every recipe.
+     */
+    public static boolean contains(char[] haystack, char[] needle) {
+        return indexOf(haystack, needle, 0) != -1;
+    }
+
+    /* Plain substring search over char data, returns -1 if not found */
+    public static int indexOf(char[] haystack, char[] needle, int fromIndex) {
+        int needleLength = needle.length;
+        if (needleLength == 0) {
+            return fromIndex <= haystack.length ? fromIndex : -1;
+        }
+
+        char first = needle[0];
+        int max = haystack.length - needleLength;
+
+        for (int i = fromIndex; i <= max; i++) {
+            // Look for the first character before comparing the rest
+            if (haystack[i] != first) {
+                continue;
+            }
+
+            int j = 1;
+            while (j < needleLength && haystack[i + j] == needle[j]) {
+                j++;
+            }
+
+            if (j == needleLength) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Sets one bit for every kind of character in the text: one per letter, one per digit and one for everything else.
+     * If a character of the query has no bit in the mask of a key, the key cannot contain it.
+     * Spaces and separators are left out.
+     */
+    public static long charMask(char[] text) {
+        long mask = 0;
+        for (char c : text) {
+            mask |= charBit(c);
+        }
+        return mask;
+    }
+
+    /* The bit of a single character in a {@link #charMask(char[])} */
+    public static long charBit(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1L << (c - 'a');
+        } else if (c >= '0' && c <= '9') {
+            return 1L << (26 + c - '0');
+        } else if (c == ' ' || c == SEPARATOR) {
+            return 0;
+        }
+        return 1L << 63;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
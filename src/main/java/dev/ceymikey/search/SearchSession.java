@@ -0,0 +1,121 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.search;
+
+import dev.ceymikey.debug.jfr.SearchEvent;
+import dev.ceymikey.potion.PotionRecipe;
+import dev.ceymikey.registry.RegistrySnapshot;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the results of the previous queries typed into the search field.
+ * <p>
+ * Every result is pushed on a stack. When the player keeps typing, only the recipes
+ * that matched the shorter query have to be checked again, because a recipe that does
+ * not contain "fir" can never contain "fire". When the player removes characters we
+ * simply pop back to the result we already had for that query.
+ * <p>
+ * The results belong to one registry snapshot, a different snapshot starts over.
+ */
+public final class SearchSession {
+    private final Deque<Entry> results = new ArrayDeque<>();
+    private RegistrySnapshot snapshot;
+
+    /**
+     * Updates the session with the current search text.
+     * @param snapshot the registry snapshot to search in
+     * @param query the raw search text, must not be empty
+     * @return the ids of the matching recipes in ascending order
+     */
+    public int[] updateIds(RegistrySnapshot snapshot, String query) {
+        // Cached ids are meaningless in another snapshot
+        if (this.snapshot != snapshot) {
+            this.results.clear();
+            this.snapshot = snapshot;
+        }
+
+        String normalized = SearchNormalizer.normalize(query);
+
+        // Backspace or a completely different query, drop everything that is no prefix of it
+        while (!this.results.isEmpty() && !normalized.startsWith(this.results.peek().query)) {
+            this.results.pop();
+        }
+
+        Entry previous = this.results.peek();
+        if (previous != null && previous.query.equals(normalized)) {
+            return previous.ids;
+        }
+
+        SearchEvent event = new SearchEvent();
+        event.begin();
+
+        // Either the index gives us the candidates, or the results of the shorter query do
+        char[] needle = normalized.toCharArray();
+        int[] candidates = previous == null
+                ? snapshot.searchCandidates(needle)
+                : previous.ids;
+        int[] ids = refine(snapshot, candidates, needle);
+
+        this.results.push(new Entry(normalized, ids));
+
+        if (event.shouldCommit()) {
+            event.queryLength = needle.length;
+            event.candidateCount = candidates.length;
+            event.resultCount = ids.length;
+            event.incremental = previous != null;
+            event.commit();
+        }
+        return ids;
+    }
+
+    /* Same as {@link #updateIds(RegistrySnapshot, String)} but resolves the ids to their recipes */
+    public List<PotionRecipe> update(RegistrySnapshot snapshot, String query) {
+        return snapshot.getRecipes(updateIds(snapshot, query));
+    }
+
+    /* Forgets all previous results */
+    public void clear() {
+        this.results.clear();
+        this.snapshot = null;
+    }
+
+    // Keeps the candidates whose search key really contains the needle
+    private static int[] refine(RegistrySnapshot snapshot, int[] candidates, char[] needle) {
+        int[] ids = new int[candidates.length];
+        int count = 0;
+
+        for (int id : candidates) {
+            if (SearchNormalizer.contains(snapshot.getRecipe(id).getSearchKey(), needle)) {
+                ids[count++] = id;
+            }
+        }
+
+        return Arrays.copyOf(ids, count);
+    }
+
+    private record Entry(String query, int[] ids) {
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of BrewingGuide (https://github.com/Ceymikey/brewing-guide)
+ *
+ * Copyright © 2025 Ceymikey.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this
+ * software and associated documentation files (the "Software"), to deal in the Software
+ * without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons
+ * to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies
+ * or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE
+ * FOR ANY CLAIM, DAMAGES, OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package dev.ceymikey.search;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inverted index from every three character sequence (trigram) to the search keys containing it.
+ * <p>
+ * A query of three or more characters only has to look at the keys that contain all of its
+ * trigrams, instead of every registered recipe. Candidates are then verified with a real
+ * substring check, because having all trigrams does not guarantee they appear in order.
+ */
+public final class TrigramIndex {
+    public static final int GRAM_LENGTH = 3;
+
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final char[][] keys;
+    private final Long2ObjectOpenHashMap<int[]> postings;
+
+    private TrigramIndex(char[][] keys, Long2ObjectOpenHashMap<int[]> postings) {
+        this.keys = keys;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the index over the given search keys.
+     * The position of a key in the list is the id returned by {@link #search(char[])}.
+     */
+    public static TrigramIndex build(List<char[]> keys) {
+        char[][] keyArray = keys.toArray(new char[0][]);
+        Long2ObjectOpenHashMap<IntArrayList> lists = new Long2ObjectOpenHashMap<>();
+
+        for (int id = 0; id < keyArray.length; id++) {
+            char[] key = keyArray[id];
+            for (int i = 0; i + GRAM_LENGTH <= key.length; i++) {
+                if (!isIndexable(key, i)) {
+                    continue;
+                }
+
+                IntArrayList list = lists.computeIfAbsent(pack(key, i), gram -> new IntArrayList());
+
+                // Ids are added in ascending order, so a repeated trigram in the same key
+                // always ends up right after itself.
+                if (list.isEmpty() || list.getInt(list.size() - 1) != id) {
+                    list.add(id);
+                }
+            }
+        }
+
+        Long2ObjectOpenHashMap<int[]> postings = new Long2ObjectOpenHashMap<>(lists.size());
+        for (Long2ObjectMap.Entry<IntArrayList> entry : lists.long2ObjectEntrySet()) {
+            postings.put(entry.getLongKey(), entry.getValue().toIntArray());
+        }
+
+        return new TrigramIndex(keyArray, postings);
+    }
+
+    /* Amount of keys in this index */
+    public int size() {
+        return this.keys.length;
+    }
+
+    /**
+     * Finds all keys containing the (already normalized) needle.
+     * @param needle the normalized query
+     * @return the ids of the matching keys in ascending order
+     */
+    public int[] search(char[] needle) {
+        int[] candidates = candidates(needle);
+
+        // Verify the candidates, the trigrams could be in the wrong order
+        int[] result = new int[candidates.length];
+        int count = 0;
+        for (int id : candidates) {
+            if (SearchNormalizer.contains(this.keys[id], needle)) {
+                result[count++] = id;
+            }
+        }
+
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Finds the keys that contain every trigram of the needle.
+     * These still have to be verified with a substring check.
+     * @param needle the normalized query
+     * @return the ids of the candidates in ascending order
+     */
+    public int[] candidates(char[] needle) {
+        // Too short to have a trigram, so every key is a candidate
+        if (needle.length < GRAM_LENGTH) {
+            return allIds();
+        }
+
+        int[][] lists = collectPostings(needle);
+        if (lists == null) {
+            return NO_MATCHES;
+        }
+
+        // Start with the smallest posting list so every intersection stays as small as possible
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] candidates = lists[0];
+        for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists[i]);
+        }
+
+        return candidates;
+    }
+
+    /* Returns the posting lists of every distinct trigram in the needle, or null if one has no keys */
+    private int[][] collectPostings(char[] needle) {
+        LongOpenHashSet grams = new LongOpenHashSet();
+        int[][] lists = new int[needle.length - GRAM_LENGTH + 1][];
+        int count = 0;
+
+        for (int i = 0; i + GRAM_LENGTH <= needle.length; i++) {
+            long gram = pack(needle, i);
+            if (!grams.add(gram)) {
+                continue;
+            }
+
+            int[] postings = this.postings.get(gram);
+            if (postings == null) {
+                return null;
+            }
+            lists[count++] = postings;
+        }
+
+        return Arrays.copyOf(lists, count);
+    }
+
+    private int[] allIds() {
+        int[] ids = new int[this.keys.length];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = id;
+        }
+        return ids;
+    }
+
+    /* Intersects two ascending id lists */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    // Trigrams spanning two names can never be part of a match, so they are left out
+    private static boolean isIndexable(char[] key, int offset) {
+        for (int i = offset; i < offset + GRAM_LENGTH; i++) {
+            if (key[i] == SearchNormalizer.SEPARATOR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* Packs three chars into a single long so the index does not need String keys */
+    private static long pack(char[] chars, int offset) {
+        return ((long) chars[offset] << 32) | ((long) chars[offset + 1] << 16) | chars[offset + 2];
+    }
+}